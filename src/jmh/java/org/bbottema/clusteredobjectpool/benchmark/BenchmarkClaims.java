@@ -0,0 +1,42 @@
+package org.bbottema.clusteredobjectpool.benchmark;
+
+import org.bbottema.genericobjectpool.PoolableObject;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+public final class BenchmarkClaims {
+
+	private BenchmarkClaims() {
+	}
+
+	/**
+	 * @return The claimed object, for the benchmark to return so the JIT cannot eliminate the claim.
+	 */
+	@NotNull
+	static Object claimAndRelease(@Nullable final PoolableObject<Object> claimed) {
+		if (claimed == null) {
+			throw new IllegalStateException("claim timed out, benchmark is invalid");
+		}
+		claimed.release();
+		return claimed.getAllocatedObject();
+	}
+
+	/**
+	 * Walks keys round robin per benchmark thread, so keyed claims spread over all pools or clusters without sharing state between threads.
+	 */
+	@State(Scope.Thread)
+	public static class Cursor {
+		private int next;
+
+		@NotNull
+		<K> K next(@NotNull final List<K> keys) {
+			final K key = keys.get(next);
+			next = (next + 1) % keys.size();
+			return key;
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package org.bbottema.clusteredobjectpool.benchmark;
+
+import org.bbottema.clusteredobjectpool.core.ClusterConfig;
+import org.bbottema.clusteredobjectpool.core.ResourceClusters;
+import org.bbottema.clusteredobjectpool.core.api.AllocatorFactory;
+import org.bbottema.clusteredobjectpool.core.api.LoadBalancingStrategy;
+import org.bbottema.clusteredobjectpool.core.api.ResourceKey;
+import org.bbottema.clusteredobjectpool.cyclingstrategies.AtomicRoundRobinLoadBalancing;
+import org.bbottema.clusteredobjectpool.cyclingstrategies.LatencyAwareLoadBalancing;
+import org.bbottema.clusteredobjectpool.cyclingstrategies.LeastOutstandingClaimsLoadBalancing;
+import org.bbottema.clusteredobjectpool.cyclingstrategies.PowerOfTwoChoicesLoadBalancing;
+import org.bbottema.clusteredobjectpool.cyclingstrategies.RandomAccessLoadBalancing;
+import org.bbottema.clusteredobjectpool.cyclingstrategies.RoundRobinLoadBalancing;
+import org.bbottema.clusteredobjectpool.cyclingstrategies.SmoothWeightedRoundRobinLoadBalancing;
+import org.bbottema.genericobjectpool.Allocator;
+import org.bbottema.genericobjectpool.expirypolicies.TimeoutSinceCreationExpirationPolicy;
+import org.jetbrains.annotations.NotNull;
+
+import static java.util.concurrent.TimeUnit.HOURS;
+
+/**
+ * Clusters of cheap, never expiring objects, so the benchmarks measure the overhead of claiming and releasing rather than allocation.
+ */
+public final class BenchmarkClusters {
+
+	/**
+	 * Large enough that a handful of benchmark threads rarely wait for each other on a single pool.
+	 */
+	static final int MAX_POOL_SIZE = 16;
+
+	private BenchmarkClusters() {
+	}
+
+	@NotNull
+	static ResourceClusters<Integer, Integer, Object> create(@NotNull final Strategy strategy) {
+		return new ResourceClusters<>(ClusterConfig.<Integer, Integer, Object>builder()
+				.allocatorFactory(new AllocatorFactory<Integer, Integer, Object>() {
+					@NotNull
+					@Override
+					public Allocator<Object> create(@NotNull final ResourceKey<Integer, Integer> resourceKey) {
+						return new Allocator<Object>() {
+							@NotNull
+							@Override
+							public Object allocate() {
+								return new Object();
+							}
+						};
+					}
+				})
+				.defaultExpirationPolicy(new TimeoutSinceCreationExpirationPolicy<>(1, HOURS))
+				.defaultMaxPoolSize(MAX_POOL_SIZE)
+				.loadBalancingStrategy(strategy.create())
+				.build());
+	}
+
+	/**
+	 * Every {@link LoadBalancingStrategy} shipped with the library, as a JMH parameter.
+	 */
+	@SuppressWarnings({"rawtypes", "unused"})
+	public enum Strategy {
+		ATOMIC_ROUND_ROBIN {
+			@Override
+			LoadBalancingStrategy create() {
+				return new AtomicRoundRobinLoadBalancing();
+			}
+		},
+		ROUND_ROBIN {
+			@Override
+			LoadBalancingStrategy create() {
+				return new RoundRobinLoadBalancing();
+			}
+		},
+		RANDOM_ACCESS {
+			@Override
+			LoadBalancingStrategy create() {
+				return new RandomAccessLoadBalancing();
+			}
+		},
+		LEAST_OUTSTANDING_CLAIMS {
+			@Override
+			LoadBalancingStrategy create() {
+				return new LeastOutstandingClaimsLoadBalancing();
+			}
+		},
+		POWER_OF_TWO_CHOICES {
+			@Override
+			LoadBalancingStrategy create() {
+				return new PowerOfTwoChoicesLoadBalancing();
+			}
+		},
+		SMOOTH_WEIGHTED_ROUND_ROBIN {
+			@Override
+			LoadBalancingStrategy create() {
+				return new SmoothWeightedRoundRobinLoadBalancing();
+			}
+		},
+		LATENCY_AWARE {
+			@Override
+			LoadBalancingStrategy create() {
+				return new LatencyAwareLoadBalancing();
+			}
+		};
+
+		abstract LoadBalancingStrategy create();
+	}
+}
@@ -0,0 +1,92 @@
+package org.bbottema.clusteredobjectpool.benchmark;
+
+import org.bbottema.clusteredobjectpool.benchmark.BenchmarkClusters.Strategy;
+import org.bbottema.clusteredobjectpool.core.ResourceClusters;
+import org.bbottema.clusteredobjectpool.core.api.ResourceKey;
+import org.bbottema.clusteredobjectpool.core.api.ResourceKey.ResourceClusterAndPoolKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Claim/release round trips on a single cluster, for every load balancing strategy and a growing number of pools in the cluster.
+ * <p>
+ * Run with {@code -t 1}, {@code -t 4}, {@code -t max} etc. to see how each strategy scales with concurrent claimers.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ClusterClaimBenchmark {
+
+	private static final Integer CLUSTER_KEY = 0;
+
+	@Param({"1", "10", "100"})
+	public int poolsPerCluster;
+
+	@Param
+	public Strategy strategy;
+
+	private ResourceClusters<Integer, Integer, Object> clusters;
+	private List<ResourceKey<Integer, Integer>> poolKeys;
+
+	@Setup(Level.Trial)
+	public void registerPools() {
+		clusters = BenchmarkClusters.create(strategy);
+		poolKeys = new ArrayList<>();
+		for (int pool = 0; pool < poolsPerCluster; pool++) {
+			final ResourceKey<Integer, Integer> poolKey = new ResourceClusterAndPoolKey<>(CLUSTER_KEY, pool);
+			clusters.registerResourcePool(poolKey);
+			poolKeys.add(poolKey);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void shutDown() throws Exception {
+		clusters.shutDown().get();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(SECONDS)
+	public Object claimFromCluster() throws InterruptedException {
+		return BenchmarkClaims.claimAndRelease(clusters.claimResourceFromCluster(CLUSTER_KEY));
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SampleTime)
+	@OutputTimeUnit(MICROSECONDS)
+	public Object claimFromClusterLatency() throws InterruptedException {
+		return BenchmarkClaims.claimAndRelease(clusters.claimResourceFromCluster(CLUSTER_KEY));
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(SECONDS)
+	public Object claimFromPool(final BenchmarkClaims.Cursor cursor) throws InterruptedException {
+		return BenchmarkClaims.claimAndRelease(clusters.claimResourceFromPool(cursor.next(poolKeys)));
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SampleTime)
+	@OutputTimeUnit(MICROSECONDS)
+	public Object claimFromPoolLatency(final BenchmarkClaims.Cursor cursor) throws InterruptedException {
+		return BenchmarkClaims.claimAndRelease(clusters.claimResourceFromPool(cursor.next(poolKeys)));
+	}
+}
@@ -0,0 +1,94 @@
+package org.bbottema.clusteredobjectpool.benchmark;
+
+import org.bbottema.clusteredobjectpool.benchmark.BenchmarkClusters.Strategy;
+import org.bbottema.clusteredobjectpool.core.ResourceClusters;
+import org.bbottema.clusteredobjectpool.core.api.ResourceKey;
+import org.bbottema.clusteredobjectpool.core.api.ResourceKey.ResourceClusterAndPoolKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Claim/release round trips spread over a growing number of clusters (as with on-the-fly clusters per tenant), each with a few pools
+ * and the default load balancing strategy. Separate from {@link ClusterClaimBenchmark}, because every pool is a {@code GenericObjectPool}
+ * of its own and the full matrix of clusters and pools would not fit in memory.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ManyClustersClaimBenchmark {
+
+	private static final int POOLS_PER_CLUSTER = 2;
+
+	@Param({"1", "100", "10000"})
+	public int clusterCount;
+
+	private ResourceClusters<Integer, Integer, Object> clusters;
+	private List<Integer> clusterKeys;
+	private List<ResourceKey<Integer, Integer>> poolKeys;
+
+	@Setup(Level.Trial)
+	public void registerPools() {
+		clusters = BenchmarkClusters.create(Strategy.ATOMIC_ROUND_ROBIN);
+		clusterKeys = new ArrayList<>();
+		poolKeys = new ArrayList<>();
+		for (int cluster = 0; cluster < clusterCount; cluster++) {
+			clusterKeys.add(cluster);
+			for (int pool = 0; pool < POOLS_PER_CLUSTER; pool++) {
+				final ResourceKey<Integer, Integer> poolKey = new ResourceClusterAndPoolKey<>(cluster, pool);
+				clusters.registerResourcePool(poolKey);
+				poolKeys.add(poolKey);
+			}
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void shutDown() throws Exception {
+		clusters.shutDown().get();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(SECONDS)
+	public Object claimFromCluster(final BenchmarkClaims.Cursor cursor) throws InterruptedException {
+		return BenchmarkClaims.claimAndRelease(clusters.claimResourceFromCluster(cursor.next(clusterKeys)));
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SampleTime)
+	@OutputTimeUnit(MICROSECONDS)
+	public Object claimFromClusterLatency(final BenchmarkClaims.Cursor cursor) throws InterruptedException {
+		return BenchmarkClaims.claimAndRelease(clusters.claimResourceFromCluster(cursor.next(clusterKeys)));
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(SECONDS)
+	public Object claimFromPool(final BenchmarkClaims.Cursor cursor) throws InterruptedException {
+		return BenchmarkClaims.claimAndRelease(clusters.claimResourceFromPool(cursor.next(poolKeys)));
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SampleTime)
+	@OutputTimeUnit(MICROSECONDS)
+	public Object claimFromPoolLatency(final BenchmarkClaims.Cursor cursor) throws InterruptedException {
+		return BenchmarkClaims.claimAndRelease(clusters.claimResourceFromPool(cursor.next(poolKeys)));
+	}
+}
@@ -0,0 +1,100 @@
+package org.bbottema.clusteredobjectpool.core;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * The max pool size in effect for one pool under {@link AdaptivePoolSizing}, together with the contention it gathers on the claim path.
+ * <p>
+ * generic-object-pool cannot resize a pool, so the pool is created with the ceiling as its max size and claims are held back while the number of
+ * claimed objects has reached the max pool size in effect. That check reads the pool's count of claimed objects without reserving anything, so
+ * concurrent claims can briefly overshoot it by a few objects.
+ */
+class AdaptiveMaxPoolSize {
+
+	private final int floor;
+	private final int ceiling;
+	private volatile int maxPoolSize;
+	/**
+	 * Wait times are kept relative to this, so summing the start times of the claims currently waiting cannot overflow.
+	 */
+	private final long baseNanos = System.nanoTime();
+	private final AtomicInteger claimsWaiting = new AtomicInteger();
+	private final LongAdder waitStartNanosSum = new LongAdder();
+	private final LongAdder completedWaitNanos = new LongAdder();
+	private final LongAdder skippedClaims = new LongAdder();
+	/**
+	 * Only accessed by the adjusting thread.
+	 */
+	private long totalWaitNanosAtLastAdjustment;
+
+	/**
+	 * @param floor The pool's core size; the max pool size in effect never shrinks below it (nor below 1).
+	 */
+	AdaptiveMaxPoolSize(final int floor, final int initialMaxPoolSize, final int ceiling) {
+		this.floor = Math.max(1, floor);
+		this.ceiling = Math.max(this.floor, ceiling);
+		this.maxPoolSize = Math.min(this.ceiling, Math.max(this.floor, initialMaxPoolSize));
+	}
+
+	int getMaxPoolSize() {
+		return maxPoolSize;
+	}
+
+	/**
+	 * @param claimedObjects The number of objects currently claimed from the pool.
+	 */
+	boolean hasCapacity(final int claimedObjects) {
+		return claimedObjects < maxPoolSize;
+	}
+
+	/**
+	 * @return The start of the wait, to pass to {@link #waitEnded(long)}.
+	 */
+	long waitStarted() {
+		final long waitStartNanos = System.nanoTime() - baseNanos;
+		waitStartNanosSum.add(waitStartNanos);
+		claimsWaiting.incrementAndGet();
+		return waitStartNanos;
+	}
+
+	void waitEnded(final long waitStartNanos) {
+		claimsWaiting.decrementAndGet();
+		completedWaitNanos.add(System.nanoTime() - baseNanos - waitStartNanos);
+		waitStartNanosSum.add(-waitStartNanos);
+	}
+
+	void claimSkipped() {
+		skippedClaims.increment();
+	}
+
+	/**
+	 * Called once per adjustment interval by a single thread, see {@link AdaptivePoolSizing} for the rules.
+	 *
+	 * @return Whether the max pool size in effect grew, in which case waiting claimers should be woken up.
+	 */
+	boolean adjust(@NotNull final ResourcePool<?, ?> pool, @NotNull final AdaptivePoolSizing adaptivePoolSizing) throws InterruptedException {
+		// the time spent waiting by claims that are still waiting counts as well, so a single claim blocked for long makes the pool grow too
+		final int waiting = claimsWaiting.get();
+		final long totalWaitNanos = completedWaitNanos.sum() + waiting * (System.nanoTime() - baseNanos) - waitStartNanosSum.sum();
+		final long waitedNanos = totalWaitNanos - totalWaitNanosAtLastAdjustment;
+		totalWaitNanosAtLastAdjustment = totalWaitNanos;
+		final long skipped = skippedClaims.sumThenReset();
+
+		if (skipped > 0 || (waitedNanos > 0 && waitedNanos >= MILLISECONDS.toNanos(adaptivePoolSizing.getGrowAfterWaiting().getDurationMs()))) {
+			final int previousMaxPoolSize = maxPoolSize;
+			maxPoolSize = Math.min(ceiling, previousMaxPoolSize + Math.max(1, waiting));
+			return maxPoolSize > previousMaxPoolSize;
+		} else if (maxPoolSize > floor) {
+			final int allocated = pool.getPoolMetrics().getCurrentlyAllocated();
+			if (allocated > floor && pool.deallocateIdle(adaptivePoolSizing.getShrinkAfterIdle().getDurationMs())) {
+				maxPoolSize = Math.max(floor, Math.min(maxPoolSize, allocated - 1));
+			}
+		}
+		return false;
+	}
+}
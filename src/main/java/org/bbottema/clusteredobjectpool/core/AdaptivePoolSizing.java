@@ -0,0 +1,55 @@
+package org.bbottema.clusteredobjectpool.core;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+import org.bbottema.genericobjectpool.util.Timeout;
+import org.jetbrains.annotations.NotNull;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Lets the max pool size of each pool in a cluster follow demand, see {@link ClusterConfig#getAdaptivePoolSizing()}.
+ * <p>
+ * A pool starts out with the max pool size it was registered with. Each adjustment interval, the max pool size in effect grows if claims had to
+ * wait because the pool reached it, by the number of claims still waiting, up to the {@link #getMaxPoolSizeCeiling() ceiling}. If instead an
+ * object stayed idle for the {@link #getShrinkAfterIdle() idle time}, that object is deallocated and the max pool size in effect shrinks by one,
+ * but never below the pool's core size.
+ */
+@Value
+@Builder
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@SuppressFBWarnings(justification = "Generated code")
+public class AdaptivePoolSizing {
+
+    /**
+     * Hard upper bound for the max pool size in effect. The underlying generic-object-pool pools are created with this max size.
+     */
+    private final int maxPoolSizeCeiling;
+    /**
+     * Grow once claims waited at least this long in total during one adjustment interval because their pool had reached its max pool size in effect.
+     * Claims that skipped such a pool instead of waiting (failover and asynchronous claims) always make it grow.
+     * <p>
+     * Defaults to 10 milliseconds.
+     */
+    @Builder.Default
+    @NotNull private final Timeout growAfterWaiting = new Timeout(10, MILLISECONDS);
+    /**
+     * Shrink once an object has been idle this long.
+     * <p>
+     * Defaults to 1 minute.
+     */
+    @Builder.Default
+    @NotNull private final Timeout shrinkAfterIdle = new Timeout(1, MINUTES);
+    /**
+     * How often the max pool sizes in effect are adjusted.
+     * <p>
+     * Defaults to 1 second.
+     */
+    @Builder.Default
+    @NotNull private final Timeout adjustmentInterval = new Timeout(1, SECONDS);
+}
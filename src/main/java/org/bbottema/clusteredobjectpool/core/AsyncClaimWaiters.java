@@ -0,0 +1,217 @@
+package org.bbottema.clusteredobjectpool.core;
+
+import org.bbottema.genericobjectpool.PoolableObject;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Queue of asynchronous claims of one cluster that could not be served right away, completed in FIFO order when a resource is returned to
+ * any pool in the cluster.
+ * <p>
+ * No thread waits for a claim: retries and timeouts all run as short tasks on the scheduler shared by the whole {@link ResourceClusters}
+ * instance. Retries are triggered by the cluster's {@link ReleaseSignal} and coalesced, so a burst of releases results in a single pass over
+ * the queue. As long as claims are queued, the queue is also retried periodically, in case a pool frees capacity without signalling.
+ * <p>
+ * The scheduler only hands out idle objects, as allocating runs the user's allocator, which may be slow. When a queued claim finds no idle
+ * object while its pools have room to grow, the claim is handed to the allocation executor instead, which claims and thereby allocates; at
+ * most as many claims at a time as there is room.
+ */
+class AsyncClaimWaiters<T> implements Runnable {
+
+	private static final long RETRY_INTERVAL_MS = 10;
+
+	@NotNull private final ScheduledExecutorService scheduler;
+	@NotNull private final Executor allocationExecutor;
+	private final Queue<Waiter<T>> waiters = new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean retryPending = new AtomicBoolean();
+	private final AtomicBoolean periodicRetryPending = new AtomicBoolean();
+	private final AtomicInteger allocatingClaims = new AtomicInteger();
+	private final Runnable periodicRetry = new Runnable() {
+		@Override
+		public void run() {
+			periodicRetryPending.set(false);
+			retrySoon();
+		}
+	};
+
+	AsyncClaimWaiters(@NotNull final ScheduledExecutorService scheduler, @NotNull final Executor allocationExecutor) {
+		this.scheduler = scheduler;
+		this.allocationExecutor = allocationExecutor;
+	}
+
+	/**
+	 * @param claimAttempt       Claims without waiting, returning {@code null} if nothing is available.
+	 * @param targetPool         The pool the claim is bound to, or {@code null} if any pool in the cluster will do.
+	 * @param claimStartNanos    When the claim started, which is before it was queued.
+	 * @param claimTimeoutNanos  After which the claim completes with {@code null}, counting from its start.
+	 * @param onTimeout          Runs when the claim completes with {@code null} because of the timeout.
+	 */
+	@NotNull
+	CompletableFuture<PoolableObject<T>> enqueue(@NotNull final ClaimAttempt<T> claimAttempt,
+												 @Nullable final ResourcePool<?, T> targetPool,
+												 final long claimStartNanos,
+												 final long claimTimeoutNanos,
+												 @NotNull final Runnable onTimeout) {
+		final Waiter<T> waiter = new Waiter<>(claimAttempt, targetPool, claimStartNanos, claimTimeoutNanos);
+		waiters.add(waiter);
+		final ScheduledFuture<?> timeoutTask = scheduler.schedule(new Runnable() {
+			@Override
+			public void run() {
+				if (waiter.future.complete(null)) {
+					onTimeout.run();
+				}
+			}
+		}, claimTimeoutNanos - (System.nanoTime() - claimStartNanos), NANOSECONDS);
+		waiter.future.whenComplete(new BiConsumer<PoolableObject<T>, Throwable>() {
+			@Override
+			public void accept(final PoolableObject<T> claimed, final Throwable throwable) {
+				// the next pass over the queue drops the waiter
+				timeoutTask.cancel(false);
+			}
+		});
+		// a release may have happened between the failed attempt and enqueueing
+		retrySoon();
+		return waiter.future;
+	}
+
+	void retrySoon() {
+		if (!waiters.isEmpty() && retryPending.compareAndSet(false, true)) {
+			scheduler.execute(this);
+		}
+	}
+
+	/**
+	 * Completes the claims that are bound to the given pool with {@code null}, like a blocking claim on a pool that is shutting down.
+	 */
+	void abandonClaimsOn(@NotNull final ResourcePool<?, T> retiredPool) {
+		for (Waiter<T> waiter : waiters) {
+			if (waiter.targetPool == retiredPool) {
+				waiter.future.complete(null);
+			}
+		}
+	}
+
+	/**
+	 * Retries the queued claims in order, handing claims that need an allocation to the allocation executor.
+	 */
+	@Override
+	public void run() {
+		retryPending.set(false);
+		for (Iterator<Waiter<T>> iterator = waiters.iterator(); iterator.hasNext(); ) {
+			final Waiter<T> waiter = iterator.next();
+			if (waiter.future.isDone()) {
+				iterator.remove();
+				continue;
+			} else if (waiter.allocating.get()) {
+				continue;
+			}
+			try {
+				final PoolableObject<T> claimed = waiter.claimAttempt.claimIdle();
+				if (claimed != null) {
+					iterator.remove();
+					complete(waiter, claimed);
+				} else if (allocatingClaims.get() < waiter.claimAttempt.allocationRoom()) {
+					claimWithAllocation(waiter);
+				}
+			} catch (Exception e) {
+				iterator.remove();
+				waiter.future.completeExceptionally(e);
+			}
+		}
+		if (!waiters.isEmpty() && periodicRetryPending.compareAndSet(false, true)) {
+			scheduler.schedule(periodicRetry, RETRY_INTERVAL_MS, MILLISECONDS);
+		}
+	}
+
+	private void claimWithAllocation(@NotNull final Waiter<T> waiter) {
+		waiter.allocating.set(true);
+		allocatingClaims.incrementAndGet();
+		allocationExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				final ClaimAllocation claimAllocation = ClaimAllocation.start(waiter.claimStartNanos, waiter.claimTimeoutNanos);
+				try {
+					final PoolableObject<T> claimed = waiter.future.isDone() ? null : waiter.claimAttempt.claim();
+					if (claimed != null) {
+						complete(waiter, claimed);
+					}
+				} catch (Exception e) {
+					if (e instanceof InterruptedException) {
+						Thread.currentThread().interrupt();
+					}
+					waiter.future.completeExceptionally(e);
+				} finally {
+					claimAllocation.end();
+					allocatingClaims.decrementAndGet();
+					waiter.allocating.set(false);
+				}
+			}
+		});
+	}
+
+	private static <T> void complete(@NotNull final Waiter<T> waiter, @NotNull final PoolableObject<T> claimed) {
+		if (!waiter.future.complete(claimed)) {
+			claimed.release(); // timed out or cancelled meanwhile
+		}
+	}
+
+	/**
+	 * A claim on a single pool or on any pool of the cluster, in the forms needed by the queue.
+	 */
+	interface ClaimAttempt<T> {
+		/**
+		 * Claims an idle object without waiting and without allocating, so this is safe to run on the scheduler.
+		 *
+		 * @return The claimed object, or {@code null} if no pool of the claim has one idle.
+		 */
+		@Nullable
+		PoolableObject<T> claimIdle() throws InterruptedException;
+
+		/**
+		 * Claims without waiting, allocating a new object if needed and there is room, on the calling thread.
+		 *
+		 * @return The claimed object, or {@code null} if nothing is available.
+		 */
+		@Nullable
+		PoolableObject<T> claim() throws InterruptedException;
+
+		/**
+		 * @return How many more objects the pools of the claim may allocate right now.
+		 */
+		int allocationRoom();
+	}
+
+	private static class Waiter<T> {
+		private final CompletableFuture<PoolableObject<T>> future = new CompletableFuture<>();
+		/**
+		 * Set while the claim is handed to the allocation executor, so the scheduler doesn't hand it over a second time.
+		 */
+		private final AtomicBoolean allocating = new AtomicBoolean();
+		@NotNull private final ClaimAttempt<T> claimAttempt;
+		@Nullable private final ResourcePool<?, T> targetPool;
+		private final long claimStartNanos;
+		private final long claimTimeoutNanos;
+
+		private Waiter(@NotNull final ClaimAttempt<T> claimAttempt, @Nullable final ResourcePool<?, T> targetPool, final long claimStartNanos,
+					   final long claimTimeoutNanos) {
+			this.claimAttempt = claimAttempt;
+			this.targetPool = targetPool;
+			this.claimStartNanos = claimStartNanos;
+			this.claimTimeoutNanos = claimTimeoutNanos;
+		}
+	}
+}
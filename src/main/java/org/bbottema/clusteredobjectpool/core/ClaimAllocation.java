@@ -0,0 +1,90 @@
+package org.bbottema.clusteredobjectpool.core;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The claim the current thread is making, if any, for the allocators of the cluster. generic-object-pool allocates new objects for a claim on
+ * the claiming thread, so an {@link InstrumentedAllocator} that finds a claim here is allocating for it and must not wait longer than the claim
+ * may. Allocations without a claim, such as the pools allocating up to their core size, wait as long as needed.
+ * <p>
+ * With a resource cap on the cluster, the claim path also reserves a permit of the cap here before claiming, so the allocator never waits
+ * for one: it either uses the reserved permit or gives up. A permit that is still reserved after the claim, because the pool handed out an
+ * idle object, goes back to the cap.
+ */
+final class ClaimAllocation {
+
+	private static final ThreadLocal<ClaimAllocation> CURRENT_CLAIM = new ThreadLocal<>();
+
+	private final long claimStartNanos;
+	private final long claimTimeoutNanos;
+	@Nullable private final ClaimAllocation enclosingClaim;
+	/**
+	 * Only accessed by the claiming thread.
+	 */
+	private boolean resourcePermitReserved;
+
+	private ClaimAllocation(final long claimStartNanos, final long claimTimeoutNanos, @Nullable final ClaimAllocation enclosingClaim) {
+		this.claimStartNanos = claimStartNanos;
+		this.claimTimeoutNanos = claimTimeoutNanos;
+		this.enclosingClaim = enclosingClaim;
+	}
+
+	/**
+	 * Marks the current thread as claiming until {@link #end()} is called, which should be done in a {@code finally} block.
+	 *
+	 * @param claimTimeoutNanos How long the claim may take from its start, 0 for claims that must not wait at all.
+	 */
+	@NotNull
+	static ClaimAllocation start(final long claimStartNanos, final long claimTimeoutNanos) {
+		final ClaimAllocation claimAllocation = new ClaimAllocation(claimStartNanos, claimTimeoutNanos, CURRENT_CLAIM.get());
+		CURRENT_CLAIM.set(claimAllocation);
+		return claimAllocation;
+	}
+
+	void end() {
+		if (enclosingClaim != null) {
+			CURRENT_CLAIM.set(enclosingClaim);
+		} else {
+			CURRENT_CLAIM.remove();
+		}
+	}
+
+	/**
+	 * @return The claim the current thread is allocating for, or {@code null} if the allocation is not made for a claim.
+	 */
+	@Nullable
+	static ClaimAllocation current() {
+		return CURRENT_CLAIM.get();
+	}
+
+	long remainingNanos() {
+		return claimTimeoutNanos - (System.nanoTime() - claimStartNanos);
+	}
+
+	void reserveResourcePermit() {
+		resourcePermitReserved = true;
+	}
+
+	/**
+	 * @return Whether a permit of the resource cap was reserved for this claim, which now belongs to the caller.
+	 */
+	boolean takeReservedResourcePermit() {
+		final boolean reserved = resourcePermitReserved;
+		resourcePermitReserved = false;
+		return reserved;
+	}
+
+	/**
+	 * Thrown by the allocator when the claim it allocates for runs out of time or is interrupted before the allocation could start, or when
+	 * the cluster's resource cap leaves no room. The claim path catches it and gives up like it would on a timeout, or throws
+	 * {@link InterruptedException} if the thread was interrupted.
+	 */
+	static final class AllocationAbandonedException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		AllocationAbandonedException(@NotNull final String message) {
+			super(message, null, false, false);
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package org.bbottema.clusteredobjectpool.core;
+
+import org.bbottema.clusteredobjectpool.core.api.ClaimListener;
+import org.bbottema.clusteredobjectpool.core.api.ResourceKey.ResourceClusterAndPoolKey;
+import org.bbottema.genericobjectpool.PoolableObject;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * {@link ClaimListener} bound to the key of one cluster, so the cluster's pools can report events without knowing the type of their cluster key.
+ */
+class ClusterClaimListener<ClusterKey, PoolKey, T> {
+
+	@NotNull private final ClusterKey clusterKey;
+	@NotNull private final ClaimListener<ClusterKey, PoolKey, T> listener;
+
+	ClusterClaimListener(@NotNull final ClusterKey clusterKey, @NotNull final ClaimListener<ClusterKey, PoolKey, T> listener) {
+		this.clusterKey = clusterKey;
+		this.listener = listener;
+	}
+
+	void claimStarted(@Nullable final PoolKey poolKey) {
+		listener.claimStarted(clusterKey, poolKey);
+	}
+
+	/**
+	 * @param pool The pool claimed from, or {@code null} if a claim on the cluster as a whole timed out.
+	 */
+	void claimCompleted(@Nullable final ResourcePool<PoolKey, T> pool, @Nullable final PoolableObject<T> claimed, final long claimStartNanos) {
+		final long waitNanos = System.nanoTime() - claimStartNanos;
+		if (claimed != null && pool != null) {
+			listener.claimSucceeded(clusterKey, pool.getPoolKey(), claimed, waitNanos);
+		} else {
+			listener.claimTimedOut(clusterKey, pool != null ? pool.getPoolKey() : null, waitNanos);
+		}
+	}
+
+	void poolShutDown(@NotNull final PoolKey poolKey) {
+		listener.poolShutDown(new ResourceClusterAndPoolKey<>(clusterKey, poolKey));
+	}
+}
@@ -6,12 +6,14 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Value;
 import org.bbottema.clusteredobjectpool.core.api.AllocatorFactory;
+import org.bbottema.clusteredobjectpool.core.api.ClaimListener;
 import org.bbottema.clusteredobjectpool.core.api.LoadBalancingStrategy;
-import org.bbottema.clusteredobjectpool.cyclingstrategies.RoundRobinLoadBalancing;
+import org.bbottema.clusteredobjectpool.cyclingstrategies.AtomicRoundRobinLoadBalancing;
 import org.bbottema.genericobjectpool.ExpirationPolicy;
 import org.bbottema.genericobjectpool.util.ForeverTimeout;
 import org.bbottema.genericobjectpool.util.Timeout;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * @param <ClusterKey> See {@link ResourceClusters}.
@@ -53,8 +55,90 @@ public class ClusterConfig<ClusterKey, PoolKey, T> {
     @NotNull private final Timeout claimTimeout = ForeverTimeout.WAIT_FOREVER;
     /**
      *  Strategy for choosing which resource pool (for example connections to a specific server) in a cluster (of servers) to utilize.
-     *  Defaults to {@link RoundRobinLoadBalancing}.
+     *  Defaults to {@link AtomicRoundRobinLoadBalancing}.
      */
     @Builder.Default
-    @NotNull private final LoadBalancingStrategy loadBalancingStrategy = new RoundRobinLoadBalancing();
+    @NotNull private final LoadBalancingStrategy loadBalancingStrategy = new AtomicRoundRobinLoadBalancing();
+    /**
+     * When claiming from a cluster, try the pool selected by the load balancing strategy without waiting and fail over to the other pools in
+     * cluster order after it, only waiting (for whichever pool frees up first) when all pools are saturated. When disabled, a claim waits on the
+     * selected pool for the full claim timeout, even if other pools have objects available.
+     * <p>
+     * Defaults to {@value}.
+     */
+    @Builder.Default
+    private final boolean failoverClaims = false;
+    /**
+     * When claiming from a cluster, each thread prefers the pool it last claimed from, as long as that pool has an idle object, and otherwise
+     * lets the load balancing strategy select a pool. This keeps connections and their state with the same thread instead of handing them from
+     * thread to thread, at the cost of spreading the load less evenly than the strategy would.
+     * <p>
+     * Defaults to {@value}.
+     */
+    @Builder.Default
+    private final boolean threadAffineClaims = false;
+    /**
+     * Receives the claim lifecycle events of the cluster, such as claims started, succeeded or timed out and resources allocated. When not set,
+     * the claim paths skip all event handling, including taking timestamps for it.
+     * <p>
+     * Defaults to {@code null}.
+     */
+    @Builder.Default
+    @Nullable private final ClaimListener<ClusterKey, PoolKey, T> claimListener = null;
+    /**
+     * Maximum number of objects the pools of a cluster allocate at the same time, for example to not flood the servers with connection attempts
+     * when a cluster is started or {@link ResourceClusters#warmUp(Object) warmed up}. Pools allocate in parallel up to this limit and take turns
+     * fairly beyond it. Zero means no limit.
+     * <p>
+     * Defaults to {@value}.
+     */
+    @Builder.Default
+    private final int maxConcurrentAllocations = 0;
+    /**
+     * Number of threads that allocate for queued {@link ResourceClusters#claimResourceFromClusterAsync(Object) asynchronous claims} and probe
+     * {@link #poolEjection ejected pools}, shared by all clusters. Beyond that, allocations and probes queue up for a thread. Only read from
+     * the config the {@link ResourceClusters} instance is created with.
+     * <p>
+     * Defaults to {@value}.
+     */
+    @Builder.Default
+    private final int allocationThreads = 8;
+    /**
+     * Maximum number of objects all pools of a cluster together may have allocated, on top of each pool's own max pool size. For example 80
+     * connections through a gateway, shared by 20 pools of 10 max each. Once reached, claims skip pools that would have to allocate (when
+     * selecting a pool from the cluster) or wait for an object to be returned or deallocated anywhere in the cluster. A claim waiting on a pool
+     * with nothing idle has an idle object of another pool deallocated to make room, if that pool has more than its core size. Claims waiting
+     * for room under the cap are not served in the order they started. Zero means no limit.
+     * <p>
+     * Defaults to {@value}.
+     */
+    @Builder.Default
+    private final int maxResources = 0;
+    /**
+     * Makes the max pool size of each pool in the cluster grow while claims are waiting and shrink while objects stay idle, between the pool's
+     * core size and a hard ceiling. When not set, pools keep the max pool size they were registered with.
+     * <p>
+     * Defaults to {@code null}.
+     */
+    @Builder.Default
+    @Nullable private final AdaptivePoolSizing adaptivePoolSizing = null;
+    /**
+     * Temporarily takes pools whose allocator keeps failing or timing out out of rotation, readmitting them after a successful probe allocation.
+     * When not set, claims keep selecting such pools.
+     * <p>
+     * Defaults to {@code null}.
+     */
+    @Builder.Default
+    @Nullable private final PoolEjection poolEjection = null;
+    /**
+     * Shuts down and forgets a cluster once it had no live objects and no claims on any of its pools for this long, for example to bound memory
+     * with a cluster per tenant that is created on-the-fly. Claims or registrations for the same cluster key afterwards create the cluster anew.
+     * A cluster-specific config registered with {@link ResourceClusters#registerResourceCluster(Object, ClusterConfig)} is kept for that, so
+     * such a cluster is evicted again under its own config; other clusters come back with the global config. When not set, clusters are only
+     * ever removed by shutting down.
+     * <p>
+     * Defaults to {@code null}.
+     */
+    @Builder.Default
+    @Nullable private final Timeout evictIdleClusterAfter = null;
 }
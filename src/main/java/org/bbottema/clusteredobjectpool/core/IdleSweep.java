@@ -0,0 +1,101 @@
+package org.bbottema.clusteredobjectpool.core;
+
+import org.bbottema.clusteredobjectpool.core.api.IdleResourceCheck;
+import org.bbottema.clusteredobjectpool.core.api.IdleSweepResult;
+import org.bbottema.genericobjectpool.PoolableObject;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Claims the objects of the given pools that have been idle for a minimum time, one by one, and hands them to the executor to be checked.
+ * <p>
+ * The sweeping thread takes a permit before claiming each object, so no more objects are claimed than are being checked at the same time, and
+ * an object is never held out of its pool while waiting for a turn. Objects released after their check are not idle anymore, so each object is
+ * checked at most once per sweep.
+ */
+class IdleSweep<T> {
+
+	private final long minIdleAgeMs;
+	@NotNull private final IdleResourceCheck<T> check;
+	@NotNull private final Executor executor;
+	private final int maxConcurrentChecks;
+	@NotNull private final Semaphore checkPermits;
+	private final AtomicInteger checked = new AtomicInteger();
+	private final AtomicInteger invalidated = new AtomicInteger();
+
+	IdleSweep(final long minIdleAgeMs, @NotNull final IdleResourceCheck<T> check, @NotNull final Executor executor, final int maxConcurrentChecks) {
+		this.minIdleAgeMs = minIdleAgeMs;
+		this.check = check;
+		this.executor = executor;
+		this.maxConcurrentChecks = maxConcurrentChecks;
+		this.checkPermits = new Semaphore(maxConcurrentChecks);
+	}
+
+	/**
+	 * Blocks until all checks have finished.
+	 *
+	 * @throws InterruptedException If interrupted while waiting for a turn or for the last checks, which still finish in the background.
+	 */
+	@NotNull
+	IdleSweepResult sweep(@NotNull final Collection<? extends ResourcePool<?, T>> pools) throws InterruptedException {
+		final long sweepStartNanos = System.nanoTime();
+		for (final ResourcePool<?, T> pool : pools) {
+			while (true) {
+				checkPermits.acquire();
+				final PoolableObject<T> idleObject;
+				try {
+					idleObject = pool.claimIdle(minIdleAgeMs);
+				} catch (InterruptedException | RuntimeException e) {
+					checkPermits.release();
+					throw e;
+				}
+				if (idleObject == null) {
+					checkPermits.release();
+					break;
+				}
+				dispatchCheck(idleObject);
+			}
+		}
+		checkPermits.acquire(maxConcurrentChecks);
+		checkPermits.release(maxConcurrentChecks);
+		return new IdleSweepResult(checked.get(), invalidated.get(), System.nanoTime() - sweepStartNanos);
+	}
+
+	private void dispatchCheck(@NotNull final PoolableObject<T> idleObject) {
+		try {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					checkAndReturn(idleObject);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			idleObject.release();
+			checkPermits.release();
+			throw e;
+		}
+	}
+
+	private void checkAndReturn(@NotNull final PoolableObject<T> idleObject) {
+		boolean stillUsable = false;
+		try {
+			stillUsable = check.check(idleObject.getAllocatedObject());
+		} catch (Exception e) {
+			// invalidated below
+		} finally {
+			checked.incrementAndGet();
+			if (stillUsable) {
+				idleObject.release();
+			} else {
+				invalidated.incrementAndGet();
+				idleObject.invalidate();
+			}
+			checkPermits.release();
+		}
+	}
+}
@@ -0,0 +1,144 @@
+package org.bbottema.clusteredobjectpool.core;
+
+import lombok.RequiredArgsConstructor;
+import org.bbottema.clusteredobjectpool.core.api.ClaimListener;
+import org.bbottema.clusteredobjectpool.core.api.ResourceKey;
+import org.bbottema.genericobjectpool.Allocator;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.Semaphore;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Wraps the allocator produced by the {@link org.bbottema.clusteredobjectpool.core.api.AllocatorFactory} to record statistics of the pool it serves
+ * and report new objects to the cluster's claim listener, and to apply the cluster's limits and bookkeeping: live resource counts, the resource
+ * cap, the number of concurrent allocations, the pool's health under {@link PoolEjection} and waking claimers parked on the cluster when a
+ * resource is returned or capacity frees up.
+ */
+@RequiredArgsConstructor
+class InstrumentedAllocator<ClusterKey, PoolKey, T> extends Allocator<T> {
+
+	@NotNull private final Allocator<T> delegate;
+	@NotNull private final ResourcePoolStatistics statistics;
+	@NotNull private final OutstandingClaims<T> outstandingClaims;
+	/**
+	 * Counts of this pool, which propagate to the cluster's.
+	 */
+	@NotNull private final LiveResourceCounter liveResources;
+	@NotNull private final ResourcePools<PoolKey, T> cluster;
+	@NotNull private final ResourceKey<ClusterKey, PoolKey> key;
+	@Nullable private final ClaimListener<ClusterKey, PoolKey, T> claimListener;
+	/**
+	 * {@code null} without {@link PoolEjection}, and for the probes of the pool's health itself.
+	 */
+	@Nullable private final PoolHealth health;
+
+	/**
+	 * Never waits for the cluster's resource cap: claims reserve a permit before claiming, see {@link ClaimAllocation}, and allocations the pool
+	 * makes on its own only go ahead if a permit is available right away. Otherwise the allocation fails, which generic-object-pool shrugs off
+	 * for its own allocations.
+	 */
+	@NotNull
+	@Override
+	public T allocate() {
+		final Semaphore resourcePermits = cluster.getResourcePermits();
+		if (resourcePermits == null) {
+			return allocateWithinConcurrencyLimit();
+		}
+		final ClaimAllocation claimAllocation = ClaimAllocation.current();
+		if (claimAllocation != null ? !claimAllocation.takeReservedResourcePermit() : !resourcePermits.tryAcquire()) {
+			throw new ClaimAllocation.AllocationAbandonedException("Resource cap of the cluster reached, not allocating for " + key);
+		}
+		boolean allocated = false;
+		try {
+			final T object = allocateWithinConcurrencyLimit();
+			allocated = true;
+			return object;
+		} finally {
+			if (!allocated) {
+				resourcePermits.release();
+			}
+		}
+	}
+
+	/**
+	 * Allocations for a claim wait for a turn at most as long as the claim has left, see {@link ClaimAllocation}.
+	 */
+	@NotNull
+	private T allocateWithinConcurrencyLimit() {
+		final Semaphore allocationPermits = cluster.getAllocationPermits();
+		if (allocationPermits == null) {
+			return allocateAndRecord();
+		}
+		final ClaimAllocation claimAllocation = ClaimAllocation.current();
+		if (claimAllocation == null) {
+			allocationPermits.acquireUninterruptibly();
+		} else {
+			try {
+				if (!allocationPermits.tryAcquire(Math.max(0, claimAllocation.remainingNanos()), NANOSECONDS)) {
+					throw new ClaimAllocation.AllocationAbandonedException("Claim timed out waiting for a turn to allocate for " + key);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new ClaimAllocation.AllocationAbandonedException("Claim interrupted waiting for a turn to allocate for " + key);
+			}
+		}
+		try {
+			return allocateAndRecord();
+		} finally {
+			allocationPermits.release();
+		}
+	}
+
+	@NotNull
+	private T allocateAndRecord() {
+		final long allocationStartNanos = System.nanoTime();
+		T allocated = null;
+		try {
+			return allocated = delegate.allocate();
+		} finally {
+			statistics.recordAllocation(allocationStartNanos, allocated != null);
+			if (allocated != null) {
+				liveResources.allocated();
+			}
+			if (allocated != null && claimListener != null) {
+				claimListener.resourceAllocated(key, allocated, System.nanoTime() - allocationStartNanos);
+			}
+			if (health != null) {
+				if (allocated != null) {
+					health.allocationSucceeded(System.nanoTime() - allocationStartNanos);
+				} else {
+					health.allocationFailed();
+				}
+			}
+		}
+	}
+
+	@Override
+	public void allocateForReuse(@NotNull final T object) {
+		try {
+			delegate.allocateForReuse(object);
+		} finally {
+			statistics.recordRelease();
+			outstandingClaims.objectReturned(object);
+			cluster.getReleaseSignal().signalRelease();
+		}
+	}
+
+	@Override
+	public void deallocate(@NotNull final T object) {
+		try {
+			delegate.deallocate(object);
+		} finally {
+			statistics.recordDeallocation();
+			if (outstandingClaims.objectReturned(object)) {
+				statistics.recordInvalidation();
+			}
+			liveResources.deallocated();
+			cluster.resourceDeallocated();
+			cluster.getReleaseSignal().signalRelease();
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package org.bbottema.clusteredobjectpool.core;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Number of objects allocated and not yet deallocated, maintained by the allocators so it can be read in constant time. Counts of a cluster
+ * propagate to the counter of the whole {@link ResourceClusters} instance, so both stay consistent without walking any pools.
+ */
+class LiveResourceCounter {
+
+	private final AtomicInteger liveResources = new AtomicInteger();
+	@Nullable private final LiveResourceCounter parent;
+
+	LiveResourceCounter() {
+		this(null);
+	}
+
+	LiveResourceCounter(@Nullable final LiveResourceCounter parent) {
+		this.parent = parent;
+	}
+
+	void allocated() {
+		liveResources.incrementAndGet();
+		if (parent != null) {
+			parent.allocated();
+		}
+	}
+
+	void deallocated() {
+		liveResources.decrementAndGet();
+		if (parent != null) {
+			parent.deallocated();
+		}
+	}
+
+	int get() {
+		return liveResources.get();
+	}
+}
@@ -0,0 +1,72 @@
+package org.bbottema.clusteredobjectpool.core;
+
+import org.bbottema.genericobjectpool.PoolableObject;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Number of claims on a single pool that are waiting or hold an object, maintained on the claim path and by the pool's {@link InstrumentedAllocator},
+ * so load balancing strategies can read it on every claim without taking the pool's lock.
+ * <p>
+ * The allocator also deallocates objects that were idle, for example because they expired, so claimed objects are remembered until they are
+ * released or deallocated. Objects are told apart by equality.
+ */
+class OutstandingClaims<T> {
+
+	private final AtomicInteger outstandingClaims = new AtomicInteger();
+	private final AtomicInteger claimedObjectCount = new AtomicInteger();
+	private final ConcurrentMap<T, Integer> claimedObjects = new ConcurrentHashMap<>();
+
+	void claimStarted() {
+		outstandingClaims.incrementAndGet();
+	}
+
+	/**
+	 * @param claimed The object the claim returned, or {@code null} if it returned nothing or failed.
+	 */
+	void claimEnded(@Nullable final PoolableObject<T> claimed) {
+		if (claimed == null) {
+			outstandingClaims.decrementAndGet();
+			return;
+		}
+		claimedObjectCount.incrementAndGet();
+		final T object = claimed.getAllocatedObject();
+		Integer count = claimedObjects.putIfAbsent(object, 1);
+		while (count != null && !claimedObjects.replace(object, count, count + 1)) {
+			count = claimedObjects.putIfAbsent(object, 1);
+		}
+	}
+
+	/**
+	 * Ends the claim holding the given object, if it was claimed rather than idle.
+	 *
+	 * @return Whether the object was claimed.
+	 */
+	boolean objectReturned(@NotNull final T object) {
+		while (true) {
+			final Integer count = claimedObjects.get(object);
+			if (count == null) {
+				return false;
+			} else if (count == 1 ? claimedObjects.remove(object, count) : claimedObjects.replace(object, count, count - 1)) {
+				claimedObjectCount.decrementAndGet();
+				outstandingClaims.decrementAndGet();
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * @return Claims waiting plus objects claimed.
+	 */
+	int get() {
+		return outstandingClaims.get();
+	}
+
+	int getClaimedObjects() {
+		return claimedObjectCount.get();
+	}
+}
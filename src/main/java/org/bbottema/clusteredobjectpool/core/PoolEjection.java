@@ -0,0 +1,57 @@
+package org.bbottema.clusteredobjectpool.core;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+import org.bbottema.genericobjectpool.util.Timeout;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Takes pools whose allocator keeps failing out of rotation for a while, see {@link ClusterConfig#getPoolEjection()}.
+ * <p>
+ * Once a pool's allocator failed {@link #getConsecutiveFailures()} times in a row, the pool is ejected: claims on its cluster skip it (claims
+ * for that specific pool still go to it). After the ejection time, a probe allocation decides whether the pool is readmitted. Each time a pool
+ * is ejected again before a regular allocation succeeded, the ejection time doubles, up to {@link #getMaxEjectionTime()}. If all pools of a
+ * cluster are ejected, claims on the cluster fall back to the pool the load balancing strategy selects.
+ */
+@Value
+@Builder
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@SuppressFBWarnings(justification = "Generated code")
+public class PoolEjection {
+
+    /**
+     * Number of failed allocations in a row after which a pool is ejected.
+     * <p>
+     * Defaults to {@value}.
+     */
+    @Builder.Default
+    private final int consecutiveFailures = 3;
+    /**
+     * Allocations that take longer than this count as failed, even if they returned an object. When not set, only allocations that throw count.
+     * <p>
+     * Defaults to {@code null}.
+     */
+    @Builder.Default
+    @Nullable private final Timeout slowAllocation = null;
+    /**
+     * How long a pool stays ejected the first time, before a probe allocation is attempted.
+     * <p>
+     * Defaults to 1 second.
+     */
+    @Builder.Default
+    @NotNull private final Timeout baseEjectionTime = new Timeout(1, SECONDS);
+    /**
+     * Upper bound for the doubling ejection time.
+     * <p>
+     * Defaults to 1 minute.
+     */
+    @Builder.Default
+    @NotNull private final Timeout maxEjectionTime = new Timeout(1, MINUTES);
+}
@@ -0,0 +1,143 @@
+package org.bbottema.clusteredobjectpool.core;
+
+import org.bbottema.genericobjectpool.Allocator;
+import org.bbottema.genericobjectpool.util.Timeout;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Ejection state of one pool under {@link PoolEjection}, fed by the pool's {@link InstrumentedAllocator}.
+ * <p>
+ * While ejected, a single probe is scheduled at a time, so readmission and re-ejection never race. The scheduler only triggers the probe,
+ * which runs on the probe executor, as it allocates through the user's allocator and may take as long as that does.
+ * <p>
+ * The probe allocates like the pool would, within the cluster's resource cap and concurrency limit and counted in the pool's statistics and
+ * live resources, and must not be slower than {@link PoolEjection#getSlowAllocation()}. If the resource cap leaves no room for it, it is tried
+ * again after the same ejection time.
+ */
+class PoolHealth {
+
+	private final PoolEjection poolEjection;
+	private final ScheduledExecutorService scheduler;
+	private final Executor probeExecutor;
+	private final ReleaseSignal releaseSignal;
+	/**
+	 * The pool's {@link InstrumentedAllocator}, but without feeding this health, as probes decide on readmission themselves.
+	 */
+	private final Allocator<?> probeAllocator;
+	private final AtomicInteger consecutiveFailures = new AtomicInteger();
+	private final AtomicInteger consecutiveEjections = new AtomicInteger();
+	private final AtomicBoolean ejected = new AtomicBoolean();
+	private final LongAdder ejections = new LongAdder();
+	private volatile boolean stopped;
+
+	PoolHealth(@NotNull final PoolEjection poolEjection, @NotNull final ScheduledExecutorService scheduler, @NotNull final Executor probeExecutor,
+			   @NotNull final ReleaseSignal releaseSignal, @NotNull final Allocator<?> probeAllocator) {
+		this.poolEjection = poolEjection;
+		this.scheduler = scheduler;
+		this.probeExecutor = probeExecutor;
+		this.releaseSignal = releaseSignal;
+		this.probeAllocator = probeAllocator;
+	}
+
+	boolean isEjected() {
+		return ejected.get();
+	}
+
+	long getEjections() {
+		return ejections.sum();
+	}
+
+	void allocationSucceeded(final long allocationNanos) {
+		if (isSlow(allocationNanos)) {
+			allocationFailed();
+		} else {
+			consecutiveFailures.set(0);
+			if (!ejected.get()) {
+				consecutiveEjections.set(0);
+			}
+		}
+	}
+
+	void allocationFailed() {
+		if (consecutiveFailures.incrementAndGet() >= poolEjection.getConsecutiveFailures() && !stopped && ejected.compareAndSet(false, true)) {
+			ejections.increment();
+			scheduleProbe(consecutiveEjections.incrementAndGet());
+		}
+	}
+
+	private boolean isSlow(final long allocationNanos) {
+		final Timeout slowAllocation = poolEjection.getSlowAllocation();
+		return slowAllocation != null && allocationNanos > MILLISECONDS.toNanos(slowAllocation.getDurationMs());
+	}
+
+	/**
+	 * Stops probing once the pool is shut down.
+	 */
+	void stop() {
+		stopped = true;
+	}
+
+	private void scheduleProbe(final int ejectionCount) {
+		final long baseMs = poolEjection.getBaseEjectionTime().getDurationMs();
+		final long maxMs = poolEjection.getMaxEjectionTime().getDurationMs();
+		final long ejectionMs = Math.min(maxMs, baseMs << Math.min(ejectionCount - 1, 30));
+		scheduler.schedule(new Runnable() {
+			@Override
+			public void run() {
+				probeExecutor.execute(new Runnable() {
+					@Override
+					public void run() {
+						probe(ejectionCount);
+					}
+				});
+			}
+		}, ejectionMs, MILLISECONDS);
+	}
+
+	private void probe(final int ejectionCount) {
+		if (stopped) {
+			return;
+		}
+		boolean healthy = false;
+		try {
+			healthy = !isSlow(probeAllocation(probeAllocator));
+		} catch (ClaimAllocation.AllocationAbandonedException e) {
+			// no room under the cluster's resource cap, which says nothing about the pool
+			if (!stopped) {
+				scheduleProbe(ejectionCount);
+			}
+			return;
+		} catch (Throwable e) {
+			// stays ejected and keeps being probed, whatever the allocator throws
+		}
+		if (healthy) {
+			consecutiveFailures.set(0);
+			ejected.set(false);
+			// claims parked on the cluster may now use this pool
+			releaseSignal.signalRelease();
+		} else if (!stopped) {
+			scheduleProbe(consecutiveEjections.incrementAndGet());
+		}
+	}
+
+	/**
+	 * Allocates an object and deallocates it right away.
+	 *
+	 * @return How long the allocation took.
+	 */
+	private static <T> long probeAllocation(@NotNull final Allocator<T> allocator) {
+		final long allocationStartNanos = System.nanoTime();
+		final T probed = allocator.allocate();
+		final long allocationNanos = System.nanoTime() - allocationStartNanos;
+		allocator.deallocate(probed);
+		return allocationNanos;
+	}
+}
@@ -0,0 +1,86 @@
+package org.bbottema.clusteredobjectpool.core;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeoutException;
+
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Completes once each of the given pools has allocated up to its core size. The pools allocate on their own, so no thread waits for them:
+ * progress is checked periodically on the scheduler shared with the asynchronous claims. Pools that are shut down meanwhile are no longer
+ * waited for.
+ * <p>
+ * Checking stops once the future is done, which includes being cancelled. As a pool whose allocations keep failing never gets warm, the
+ * future completes exceptionally when a pool is {@link PoolEjection ejected} while warming up, or when the timeout expires.
+ */
+class PoolWarmUp<PoolKey, T> implements Runnable {
+
+	private static final long CHECK_INTERVAL_MS = 10;
+
+	@NotNull private final ResourcePools<PoolKey, T> cluster;
+	@NotNull private final List<ResourcePool<PoolKey, T>> poolsWarmingUp;
+	@NotNull private final ScheduledExecutorService scheduler;
+	private final long warmUpStartNanos = System.nanoTime();
+	private final long warmUpTimeoutNanos;
+	private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+	PoolWarmUp(@NotNull final ResourcePools<PoolKey, T> cluster,
+			   @NotNull final Collection<ResourcePool<PoolKey, T>> pools,
+			   final long warmUpTimeoutNanos,
+			   @NotNull final ScheduledExecutorService scheduler) {
+		this.cluster = cluster;
+		this.poolsWarmingUp = new ArrayList<>(pools);
+		this.warmUpTimeoutNanos = warmUpTimeoutNanos;
+		this.scheduler = scheduler;
+	}
+
+	@NotNull
+	CompletableFuture<Void> start() {
+		run();
+		return future;
+	}
+
+	/**
+	 * Only ever runs on one thread at a time: first the starting thread, then the scheduler.
+	 */
+	@Override
+	public void run() {
+		if (future.isDone()) {
+			return; // cancelled
+		}
+		for (Iterator<ResourcePool<PoolKey, T>> iterator = poolsWarmingUp.iterator(); iterator.hasNext(); ) {
+			final ResourcePool<PoolKey, T> pool = iterator.next();
+			if (isWarm(pool) || cluster.findResourcePool(pool.getPoolKey()) != pool) {
+				iterator.remove();
+			} else if (pool.isEjected()) {
+				future.completeExceptionally(new IllegalStateException(format("Pool '%s' was ejected while warming up", pool.getPoolKey())));
+				return;
+			}
+		}
+		final long remainingNanos = warmUpTimeoutNanos - (System.nanoTime() - warmUpStartNanos);
+		if (poolsWarmingUp.isEmpty()) {
+			future.complete(null);
+		} else if (remainingNanos <= 0) {
+			future.completeExceptionally(new TimeoutException(format("%s pool(s) not warmed up in time, including '%s'",
+					poolsWarmingUp.size(), poolsWarmingUp.get(0).getPoolKey())));
+		} else {
+			scheduler.schedule(this, Math.min(MILLISECONDS.toNanos(CHECK_INTERVAL_MS), remainingNanos), NANOSECONDS);
+		}
+	}
+
+	/**
+	 * Counts the objects the pool's allocator has returned, as generic-object-pool may count allocations that are still in progress as well.
+	 */
+	private static boolean isWarm(@NotNull final ResourcePool<?, ?> pool) {
+		return pool.getLiveResources() >= pool.getPoolMetrics().getCorePoolSize();
+	}
+}
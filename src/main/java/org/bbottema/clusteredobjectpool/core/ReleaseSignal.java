@@ -0,0 +1,72 @@
+package org.bbottema.clusteredobjectpool.core;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Lets claimers that found every pool in a cluster saturated park until a resource is returned to (or deallocated from) any pool in that
+ * cluster, rather than blocking on one arbitrary pool.
+ * <p>
+ * Signalling is a single atomic increment while nobody is parked and no {@link #setReleaseListener(Runnable) release listener} is set.
+ * Claimers read the {@link #releaseCount() release count} before scanning the pools and park only if it is still unchanged afterwards,
+ * so a release that happens during the scan is never missed.
+ * <p>
+ * A release frees room for a single claim, so it wakes a single parked claimer rather than all of them, which would only have the others
+ * scan the pools in vain. Claimers park for a bounded time only, so a release the woken claimer cannot use (for example because it waits on
+ * another pool) is still picked up by the others.
+ */
+class ReleaseSignal {
+
+	private final AtomicLong releaseCount = new AtomicLong();
+	private final AtomicInteger parkedClaimers = new AtomicInteger();
+	@Nullable private volatile Runnable releaseListener;
+
+	long releaseCount() {
+		return releaseCount.get();
+	}
+
+	void signalRelease() {
+		releaseCount.incrementAndGet();
+		if (parkedClaimers.get() > 0) {
+			synchronized (this) {
+				notify();
+			}
+		}
+		final Runnable listener = releaseListener;
+		if (listener != null) {
+			listener.run();
+		}
+	}
+
+	/**
+	 * @param releaseListener Runs on every release, on the releasing thread, so it should only hand off work.
+	 */
+	void setReleaseListener(@NotNull final Runnable releaseListener) {
+		this.releaseListener = releaseListener;
+	}
+
+	/**
+	 * Parks until a release after the observed one wakes this claimer, or until the given time has passed, whichever comes first. Returns right
+	 * away if there was a release since.
+	 */
+	void awaitReleaseAfter(final long observedReleaseCount, final long maxWaitNanos) throws InterruptedException {
+		parkedClaimers.incrementAndGet();
+		try {
+			final long parkStartNanos = System.nanoTime();
+			synchronized (this) {
+				long remainingNanos = maxWaitNanos;
+				while (releaseCount.get() == observedReleaseCount && remainingNanos > 0) {
+					NANOSECONDS.timedWait(this, remainingNanos);
+					remainingNanos = maxWaitNanos - (System.nanoTime() - parkStartNanos);
+				}
+			}
+		} finally {
+			parkedClaimers.decrementAndGet();
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package org.bbottema.clusteredobjectpool.core;
+
+import lombok.Getter;
+import org.bbottema.clusteredobjectpool.core.api.LoadBalancingStrategy;
+import org.bbottema.genericobjectpool.PoolableObject;
+import org.bbottema.genericobjectpool.util.Timeout;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+
+/**
+ * Handle to a single cluster of a {@link ResourceClusters}, holding the cluster's pools together with its resolved config, load balancing
+ * strategy and claim timeout. {@link ResourceClusters} looks up this handle once per claim; obtain it with
+ * {@link ResourceClusters#getResourceCluster(Object)} to claim from the same cluster repeatedly without looking it up by key at all.
+ * <p>
+ * A handle stays valid for the lifetime of its {@link ResourceClusters}. If the cluster is
+ * {@link ClusterConfig#getEvictIdleClusterAfter() evicted}, claims through an old handle go to the cluster that replaces it.
+ */
+public final class ResourceCluster<ClusterKey, PoolKey, T> {
+
+	@NotNull private final ResourceClusters<ClusterKey, PoolKey, T> resourceClusters;
+	@Getter
+	@NotNull private final ClusterKey clusterKey;
+	/**
+	 * The cluster-specific config, or the global config if the cluster was not registered with its own.
+	 */
+	@Getter
+	@NotNull private final ClusterConfig<ClusterKey, PoolKey, T> clusterConfig;
+	@NotNull final ResourcePools<PoolKey, T> resourcePools;
+	@NotNull final LoadBalancingStrategy<ResourcePool<PoolKey, T>, Collection<ResourcePool<PoolKey, T>>> loadBalancingStrategy;
+	@NotNull final Timeout claimTimeout;
+
+	@SuppressWarnings("unchecked")
+	ResourceCluster(@NotNull final ResourceClusters<ClusterKey, PoolKey, T> resourceClusters,
+					@NotNull final ClusterKey clusterKey,
+					@NotNull final ClusterConfig<ClusterKey, PoolKey, T> clusterConfig,
+					@NotNull final ResourcePools<PoolKey, T> resourcePools) {
+		this.resourceClusters = resourceClusters;
+		this.clusterKey = clusterKey;
+		this.clusterConfig = clusterConfig;
+		this.resourcePools = resourcePools;
+		this.loadBalancingStrategy = clusterConfig.getLoadBalancingStrategy();
+		this.claimTimeout = clusterConfig.getClaimTimeout();
+	}
+
+	/**
+	 * @see ResourceClusters#claimResourceFromCluster(Object)
+	 */
+	@Nullable
+	public PoolableObject<T> claimResource() throws InterruptedException {
+		return resourceClusters.claimResourceFromCluster(this);
+	}
+
+	/**
+	 * @see ResourceClusters#claimResourceFromClusterAsync(Object)
+	 */
+	@NotNull
+	public CompletableFuture<PoolableObject<T>> claimResourceAsync() {
+		return resourceClusters.claimResourceFromClusterAsync(this);
+	}
+
+	/**
+	 * @see ResourceClusters#claimMatchingResourceFromCluster(Object, Predicate)
+	 */
+	@Nullable
+	public PoolableObject<T> claimMatchingResource(@NotNull final Predicate<PoolableObject<T>> predicate) throws InterruptedException {
+		return resourceClusters.claimMatchingResourceFromCluster(this, predicate);
+	}
+}
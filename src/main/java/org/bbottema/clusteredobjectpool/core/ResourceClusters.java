@@ -1,26 +1,45 @@
 package org.bbottema.clusteredobjectpool.core;
 
 import lombok.Getter;
+import org.bbottema.clusteredobjectpool.core.api.ClaimListener;
+import org.bbottema.clusteredobjectpool.core.api.IdleResourceCheck;
+import org.bbottema.clusteredobjectpool.core.api.IdleSweepResult;
 import org.bbottema.clusteredobjectpool.core.api.LoadBalancingStrategy;
+import org.bbottema.clusteredobjectpool.core.api.ResourceClusterMetrics;
 import org.bbottema.clusteredobjectpool.core.api.ResourceKey;
-import org.bbottema.clusteredobjectpool.util.CompositeFuturesAsFutureTask;
+import org.bbottema.clusteredobjectpool.util.CompletableFutures;
+import org.bbottema.genericobjectpool.Allocator;
 import org.bbottema.genericobjectpool.ExpirationPolicy;
 import org.bbottema.genericobjectpool.GenericObjectPool;
 import org.bbottema.genericobjectpool.PoolConfig;
 import org.bbottema.genericobjectpool.PoolableObject;
+import org.bbottema.genericobjectpool.util.ForeverTimeout;
 import org.bbottema.genericobjectpool.util.Timeout;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.function.Predicate;
 
 import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
  * Collection of clusters, each containing a number of (generic-object-pool) resource pools. Relies on the native generic-object-pool behavior for
@@ -37,6 +56,11 @@ import static java.lang.String.format;
  *    <li>Cluster 2, serverD, serverE</li>
  * </ol>
  *
+ * <p>
+ * Claiming does not take a global lock: clusters are looked up in a concurrent map and pools are cycled while holding at most the lock of the
+ * cluster being claimed from. Registration, eviction and shutdown are serialized per cluster, so registering pools in one cluster does not hold
+ * up claims or registration in others.
+ *
  * @param <ClusterKey> Anything, to identify a group of resources pools. For example {@code String} if your cluster
  *  *                  keys are going to be "cluster1", "cluster2" etc. Or {@code UUID} for uuid's (or again String for {@code UUID.toString()}).
  * @param <PoolKey>    The resource for which multiple objects will be created in a generic-object-pool object pool.<br>
@@ -47,14 +71,33 @@ import static java.lang.String.format;
 @SuppressWarnings("unused")
 public class ResourceClusters<ClusterKey, PoolKey, T> {
 
-	@NotNull private final Map<ClusterKey, ResourcePools<PoolKey, T>> resourceClusters = new HashMap<>();
-	@NotNull private final Map<ClusterKey, ClusterConfig<ClusterKey, PoolKey, T>> resourceClusterConfigs = new HashMap<>();
+	private static final int REGISTRATION_LOCK_STRIPES = 64;
+
+	@NotNull private final ConcurrentMap<ClusterKey, ResourceCluster<ClusterKey, PoolKey, T>> resourceClusters = new ConcurrentHashMap<>();
+	@NotNull private final ConcurrentMap<ClusterKey, ClusterConfig<ClusterKey, PoolKey, T>> resourceClusterConfigs = new ConcurrentHashMap<>();
 	@Getter
 	@NotNull private final ClusterConfig<ClusterKey, PoolKey, T> clusterConfig;
+	@Nullable private volatile ScheduledExecutorService asyncClaimScheduler;
+	@Nullable private volatile Executor allocationExecutor;
+	@NotNull private final LiveResourceCounter liveResources = new LiveResourceCounter();
+	/**
+	 * Guards the creation, pool registration, eviction and shutdown of the clusters whose key hashes to the stripe. Striped rather than one lock
+	 * per cluster, so evicted clusters leave no lock behind.
+	 */
+	@NotNull private final Object[] registrationLocks = new Object[REGISTRATION_LOCK_STRIPES];
+	/**
+	 * A single task checking all clusters with {@link ClusterConfig#getEvictIdleClusterAfter()} for idleness, started with the first such cluster
+	 * and rescheduled when a cluster needs checking more often. Guarded by {@code this}.
+	 */
+	@Nullable private ScheduledFuture<?> idleClusterSweep;
+	private long idleClusterSweepIntervalMs;
 
 	@SuppressWarnings({"unused", "unchecked"})
 	public ResourceClusters(final ClusterConfig<ClusterKey, PoolKey, T> clusterConfig) {
 		this.clusterConfig = clusterConfig;
+		for (int i = 0; i < registrationLocks.length; i++) {
+			registrationLocks[i] = new Object();
+		}
 	}
 
 	/**
@@ -62,13 +105,15 @@ public class ResourceClusters<ClusterKey, PoolKey, T> {
 	 *
 	 * @throws IllegalArgumentException if the cluster already exists.
 	 */
-	public synchronized void registerResourceCluster(@NotNull final ClusterKey clusterKey,
-													 @NotNull final ClusterConfig<ClusterKey, PoolKey, T> clusterConfig) throws IllegalArgumentException {
-		if (resourceClusters.containsKey(clusterKey)) {
-			throw new IllegalArgumentException("Cluster already exists for key " + clusterKey);
+	public void registerResourceCluster(@NotNull final ClusterKey clusterKey,
+										@NotNull final ClusterConfig<ClusterKey, PoolKey, T> clusterConfig) throws IllegalArgumentException {
+		synchronized (registrationLock(clusterKey)) {
+			if (resourceClusters.containsKey(clusterKey)) {
+				throw new IllegalArgumentException("Cluster already exists for key " + clusterKey);
+			}
+			resourceClusterConfigs.put(clusterKey, clusterConfig);
+			findOrCreateCluster(clusterKey);
 		}
-		resourceClusterConfigs.put(clusterKey, clusterConfig);
-		findOrCreateCluster(clusterKey);
 	}
 	
 	/**
@@ -81,36 +126,134 @@ public class ResourceClusters<ClusterKey, PoolKey, T> {
 	}
 	
 	/**
-	 * Registers a new pool for the given cluster. If the cluster is new as well, it will also be created. The new pool is backed by a {@link GenericObjectPool}.
+	 * Delegates to {@link #registerResourcePool(ResourceKey, ExpirationPolicy, int, int, int)}, with a load balancing weight of 1.
 	 *
 	 * @throws IllegalArgumentException if the pool already exists in the specified cluster.
 	 */
 	@SuppressWarnings("WeakerAccess")
-	public synchronized void registerResourcePool(@NotNull final ResourceKey<ClusterKey, PoolKey> key,
+	public void registerResourcePool(@NotNull final ResourceKey<ClusterKey, PoolKey> key,
 									 @NotNull final ExpirationPolicy<T> expirationPolicy,
 									 final int corePoolSize,
 									 final int maxPoolSize) throws IllegalArgumentException {
-		final ResourcePools<PoolKey, T> cluster = findOrCreateCluster(key.getClusterKey());
+		registerResourcePool(key, expirationPolicy, corePoolSize, maxPoolSize, 1);
+	}
+
+	/**
+	 * Registers a new pool for the given cluster. If the cluster is new as well, it will also be created. The new pool is backed by a {@link GenericObjectPool}.
+	 * <p>
+	 * The weight is the relative capacity of this pool compared to the other pools in the cluster. It is used by weighted strategies such as
+	 * {@link org.bbottema.clusteredobjectpool.cyclingstrategies.SmoothWeightedRoundRobinLoadBalancing}, for example a pool with weight 5 gets five
+	 * times the claims of a pool with weight 1. Other strategies ignore it.
+	 *
+	 * @throws IllegalArgumentException if the pool already exists in the specified cluster, or if the weight is less than 1.
+	 */
+	@SuppressWarnings("WeakerAccess")
+	public void registerResourcePool(@NotNull final ResourceKey<ClusterKey, PoolKey> key,
+									 @NotNull final ExpirationPolicy<T> expirationPolicy,
+									 final int corePoolSize,
+									 final int maxPoolSize,
+									 final int weight) throws IllegalArgumentException {
+		synchronized (registrationLock(key.getClusterKey())) {
+			createResourcePool(key, expirationPolicy, corePoolSize, maxPoolSize, weight);
+		}
+	}
+
+	/**
+	 * Changes the expiration policy and core and max pool size of a registered pool, keeping its weight, without blocking claims on the cluster.
+	 * <p>
+	 * As generic-object-pool pools cannot be reconfigured, a new pool takes the place of the current one. The current pool is drained: its idle
+	 * objects are deallocated right away and the objects in use once they are returned. Blocking claims that were waiting on it move over to the
+	 * new pool, asynchronous claims bound to it complete with {@code null}.
+	 *
+	 * @return A future that completes once the previous pool is drained.
+	 * @throws IllegalArgumentException if the pool is not registered.
+	 */
+	@SuppressWarnings("WeakerAccess")
+	public CompletableFuture<Void> reconfigureResourcePool(@NotNull final ResourceKey<ClusterKey, PoolKey> key,
+														   @NotNull final ExpirationPolicy<T> expirationPolicy,
+														   final int corePoolSize,
+														   final int maxPoolSize) throws IllegalArgumentException {
+		synchronized (registrationLock(key.getClusterKey())) {
+			final ResourcePools<PoolKey, T> cluster = findCluster(key.getClusterKey());
+			final ResourcePool<PoolKey, T> currentPool = cluster != null ? cluster.findResourcePool(key.getPoolKey()) : null;
+			if (currentPool == null) {
+				throw new IllegalArgumentException("Couldn't find resource pool with key: " + key);
+			}
+			return cluster.replacePool(currentPool, newResourcePool(key, cluster, expirationPolicy, corePoolSize, maxPoolSize, currentPool.getWeight()));
+		}
+	}
+
+	/**
+	 * Removes a single pool from its cluster, unlike {@link #shutdownPool(Object)} which shuts down the pools with that key in every cluster.
+	 * Claims on the cluster go to the remaining pools right away, while the pool is drained like with
+	 * {@link #reconfigureResourcePool(ResourceKey, ExpirationPolicy, int, int)}.
+	 *
+	 * @return A future that completes once the pool is drained, or right away if the pool is not registered.
+	 */
+	@SuppressWarnings("WeakerAccess")
+	public CompletableFuture<Void> removeResourcePool(@NotNull final ResourceKey<ClusterKey, PoolKey> key) {
+		synchronized (registrationLock(key.getClusterKey())) {
+			final ResourcePools<PoolKey, T> cluster = findCluster(key.getClusterKey());
+			return cluster != null ? cluster.shutdownPool(key.getPoolKey()) : CompletableFuture.<Void>completedFuture(null);
+		}
+	}
+
+	/**
+	 * Called while holding the cluster's {@link #registrationLock(Object) registration lock}.
+	 */
+	private ResourcePool<PoolKey, T> createResourcePool(@NotNull final ResourceKey<ClusterKey, PoolKey> key,
+														@NotNull final ExpirationPolicy<T> expirationPolicy,
+														final int corePoolSize,
+														final int maxPoolSize,
+														final int weight) throws IllegalArgumentException {
+		if (weight < 1) {
+			throw new IllegalArgumentException("Pool weight must be at least 1, was " + weight + " for " + key);
+		}
+		final ResourcePools<PoolKey, T> cluster = findOrCreateCluster(key.getClusterKey()).resourcePools;
 
 		if (cluster.containsPool(key.getPoolKey())) {
 			throw new IllegalArgumentException("Pool already exists for " + key);
 		}
 		
+		final ResourcePool<PoolKey, T> resourcePool = newResourcePool(key, cluster, expirationPolicy, corePoolSize, maxPoolSize, weight);
+		cluster.add(resourcePool);
+		return resourcePool;
+	}
+
+	@NotNull
+	private ResourcePool<PoolKey, T> newResourcePool(@NotNull final ResourceKey<ClusterKey, PoolKey> key,
+													 @NotNull final ResourcePools<PoolKey, T> cluster,
+													 @NotNull final ExpirationPolicy<T> expirationPolicy,
+													 final int corePoolSize,
+													 final int maxPoolSize,
+													 final int weight) {
+		final ResourcePoolStatistics statistics = new ResourcePoolStatistics();
+		final OutstandingClaims<T> outstandingClaims = new OutstandingClaims<>();
+		final LiveResourceCounter liveResources = new LiveResourceCounter(cluster.getLiveResources());
+		final AdaptivePoolSizing adaptivePoolSizing = getClusterConfig(key.getClusterKey()).getAdaptivePoolSizing();
+		final int poolMaxSize = adaptivePoolSizing != null ? Math.max(maxPoolSize, adaptivePoolSizing.getMaxPoolSizeCeiling()) : maxPoolSize;
+		final Allocator<T> allocator = clusterConfig.getAllocatorFactory().create(key);
+		final ClaimListener<ClusterKey, PoolKey, T> claimListener = getClaimListener(key.getClusterKey());
+		final PoolEjection poolEjection = getClusterConfig(key.getClusterKey()).getPoolEjection();
+		final PoolHealth health = poolEjection == null ? null : new PoolHealth(poolEjection, getAsyncClaimScheduler(), getAllocationExecutor(),
+				cluster.getReleaseSignal(),
+				new InstrumentedAllocator<>(allocator, statistics, outstandingClaims, liveResources, cluster, key, claimListener, null));
 		final GenericObjectPool<T> pool = new GenericObjectPool<>(PoolConfig.<T>builder()
 				.corePoolsize(corePoolSize)
-				.maxPoolsize(maxPoolSize)
+				.maxPoolsize(poolMaxSize)
 				.expirationPolicy(expirationPolicy)
-				.build(), clusterConfig.getAllocatorFactory().create(key));
+				.build(), new InstrumentedAllocator<>(allocator, statistics, outstandingClaims, liveResources, cluster, key, claimListener, health));
 		
-		cluster.add(new ResourcePool<>(key.getPoolKey(), pool));
+		return new ResourcePool<>(key.getPoolKey(), pool, weight, statistics, outstandingClaims, liveResources,
+				adaptivePoolSizing != null ? new AdaptiveMaxPoolSize(corePoolSize, maxPoolSize, poolMaxSize) : null, health);
 	}
 	
 	/**
 	 * @return If a cluster and pool combination is registered as a known pool.
 	 */
 	public boolean isPoolRegistered(@NotNull final ResourceKey<ClusterKey, PoolKey> key) {
-		return resourceClusters.containsKey(key.getClusterKey()) &&
-				resourceClusters.get(key.getClusterKey()).containsPool(key.getPoolKey());
+		final ResourcePools<PoolKey, T> cluster = findCluster(key.getClusterKey());
+		return cluster != null && cluster.containsPool(key.getPoolKey());
 	}
 
 	/**
@@ -125,9 +268,8 @@ public class ResourceClusters<ClusterKey, PoolKey, T> {
 	 */
 	@NotNull
 	public ClusterConfig<ClusterKey, PoolKey, T> getClusterConfig(@NotNull final ClusterKey clusterKey) {
-		return resourceClusterConfigs.containsKey(clusterKey)
-				? resourceClusterConfigs.get(clusterKey)
-				: clusterConfig;
+		final ClusterConfig<ClusterKey, PoolKey, T> specificClusterConfig = resourceClusterConfigs.get(clusterKey);
+		return specificClusterConfig != null ? specificClusterConfig : clusterConfig;
 	}
 	
 	/**
@@ -136,12 +278,152 @@ public class ResourceClusters<ClusterKey, PoolKey, T> {
 	 * <p>
 	 * Either preregister pools using {@link #claimResourceFromPool(ResourceKey)} or dynamically add pools on-the-fly
 	 * using {@link #registerResourcePool(ResourceKey)} or {@link #registerResourcePool(ResourceKey, ExpirationPolicy, int, int)}.
+	 * <p>
+	 * With {@link ClusterConfig#isFailoverClaims() failover claims} enabled, the other pools in the cluster are tried as well before waiting.
 	 */
 	@Nullable
 	public PoolableObject<T> claimResourceFromCluster(final ClusterKey clusterKey) throws InterruptedException {
-		return cycleToNextPool(clusterKey).claim(getClusterConfig(clusterKey).getClaimTimeout());
+		return claimResourceFromCluster(findOrCreateCluster(clusterKey));
+	}
+
+	@Nullable
+	PoolableObject<T> claimResourceFromCluster(@NotNull final ResourceCluster<ClusterKey, PoolKey, T> resourceCluster) throws InterruptedException {
+		final ResourceCluster<ClusterKey, PoolKey, T> claimedCluster = beginClaim(resourceCluster);
+		try {
+			return claimResourceFromClusterInFlight(claimedCluster);
+		} finally {
+			claimedCluster.resourcePools.endClaim();
+		}
+	}
+
+	@Nullable
+	private PoolableObject<T> claimResourceFromClusterInFlight(@NotNull final ResourceCluster<ClusterKey, PoolKey, T> resourceCluster)
+			throws InterruptedException {
+		final ResourcePools<PoolKey, T> cluster = resourceCluster.resourcePools;
+		cluster.claimStarted(null);
+		if (resourceCluster.getClusterConfig().isFailoverClaims()) {
+			if (cluster.isEmpty()) {
+				throw new IllegalStateException(format("Cluster contains no pools to draw from for key '%s'", resourceCluster.getClusterKey()));
+			}
+			return cluster.claimWithFailover(resourceCluster.loadBalancingStrategy, resourceCluster.claimTimeout, System.nanoTime());
+		}
+		final ResourcePool<PoolKey, T> resourcePool = cycleToNextPool(resourceCluster);
+		final PoolableObject<T> claimed = cluster.claim(resourcePool, resourceCluster.claimTimeout);
+		if (claimed != null) {
+			cluster.claimedFrom(resourcePool);
+		}
+		return claimed;
 	}
 	
+	/**
+	 * Non-blocking variant of {@link #claimResourceFromCluster(Object)}. If no object is available right away, the claim is queued and the
+	 * returned future completes once a resource is returned to the cluster, or with {@code null} when the cluster's claim timeout expires.
+	 * <p>
+	 * No thread is blocked while waiting: queued claims are retried and timed out by a single scheduler thread shared by all clusters. That
+	 * thread only hands out idle objects; queued claims that need a new object are allocated on
+	 * {@link ClusterConfig#getAllocationThreads() separate daemon threads}, so a slow allocator never holds up the other queued claims.
+	 * Dependent stages that are not {@code *Async} run on either of these threads, so they should hand off any slow work.
+	 */
+	@NotNull
+	public CompletableFuture<PoolableObject<T>> claimResourceFromClusterAsync(final ClusterKey clusterKey) {
+		return claimResourceFromClusterAsync(findOrCreateCluster(clusterKey));
+	}
+
+	@NotNull
+	CompletableFuture<PoolableObject<T>> claimResourceFromClusterAsync(@NotNull final ResourceCluster<ClusterKey, PoolKey, T> resourceCluster) {
+		final ResourceCluster<ClusterKey, PoolKey, T> claimedCluster = beginClaim(resourceCluster);
+		final CompletableFuture<PoolableObject<T>> claim;
+		try {
+			claim = claimResourceFromClusterAsyncInFlight(claimedCluster);
+		} catch (RuntimeException | Error e) {
+			claimedCluster.resourcePools.endClaim();
+			throw e;
+		}
+		return claimedCluster.resourcePools.endClaimOnCompletion(claim);
+	}
+
+	@NotNull
+	private CompletableFuture<PoolableObject<T>> claimResourceFromClusterAsyncInFlight(@NotNull final ResourceCluster<ClusterKey, PoolKey, T> resourceCluster) {
+		final ResourcePools<PoolKey, T> cluster = resourceCluster.resourcePools;
+		cluster.claimStarted(null);
+		if (resourceCluster.getClusterConfig().isFailoverClaims()) {
+			if (cluster.isEmpty()) {
+				throw new IllegalStateException(format("Cluster contains no pools to draw from for key '%s'", resourceCluster.getClusterKey()));
+			}
+			final LoadBalancingStrategy<ResourcePool<PoolKey, T>, Collection<ResourcePool<PoolKey, T>>> loadBalancingStrategy = resourceCluster.loadBalancingStrategy;
+			final long claimStartNanos = System.nanoTime();
+			return cluster.claimAsync(new AsyncClaimWaiters.ClaimAttempt<T>() {
+				@Override
+				public PoolableObject<T> claimIdle() throws InterruptedException {
+					return cluster.claimIdleFromAnyPool(loadBalancingStrategy, claimStartNanos);
+				}
+
+				@Override
+				public PoolableObject<T> claim() throws InterruptedException {
+					return cluster.claimFromAnyPoolWithoutWaiting(loadBalancingStrategy, claimStartNanos);
+				}
+
+				@Override
+				public int allocationRoom() {
+					return cluster.allocationRoom(null);
+				}
+			}, null, resourceCluster.claimTimeout, claimStartNanos, getAsyncClaimScheduler(), getAllocationExecutor());
+		}
+		final ResourcePool<PoolKey, T> resourcePool = cycleToNextPool(resourceCluster);
+		final CompletableFuture<PoolableObject<T>> claim = claimFromPoolAsync(cluster, resourcePool, resourceCluster.claimTimeout);
+		// only a claim served right away was served on this thread
+		if (claim.isDone() && !claim.isCompletedExceptionally() && claim.getNow(null) != null) {
+			cluster.claimedFrom(resourcePool);
+		}
+		return claim;
+	}
+
+	/**
+	 * Non-blocking variant of {@link #claimResourceFromPool(ResourceKey)}, registering the cluster and pool on-the-fly if needed. See
+	 * {@link #claimResourceFromClusterAsync(Object)} for how waiting claims are completed.
+	 */
+	@NotNull
+	public CompletableFuture<PoolableObject<T>> claimResourceFromPoolAsync(final ResourceKey<ClusterKey, PoolKey> key) {
+		final ResourceCluster<ClusterKey, PoolKey, T> resourceCluster = beginClaim(findOrCreateCluster(key.getClusterKey()));
+		final ResourcePools<PoolKey, T> cluster = resourceCluster.resourcePools;
+		final CompletableFuture<PoolableObject<T>> claim;
+		try {
+			ResourcePool<PoolKey, T> resourcePool = cluster.findResourcePool(key.getPoolKey());
+			if (resourcePool == null) {
+				resourcePool = registerResourcePoolIfAbsent(key);
+			}
+			cluster.claimStarted(key.getPoolKey());
+			claim = claimFromPoolAsync(cluster, resourcePool, resourceCluster.claimTimeout);
+		} catch (RuntimeException | Error e) {
+			cluster.endClaim();
+			throw e;
+		}
+		return cluster.endClaimOnCompletion(claim);
+	}
+
+	@NotNull
+	private CompletableFuture<PoolableObject<T>> claimFromPoolAsync(final ResourcePools<PoolKey, T> cluster,
+																	final ResourcePool<PoolKey, T> resourcePool,
+																	final Timeout claimTimeout) {
+		final long claimStartNanos = System.nanoTime();
+		return cluster.claimAsync(new AsyncClaimWaiters.ClaimAttempt<T>() {
+			@Override
+			public PoolableObject<T> claimIdle() throws InterruptedException {
+				return cluster.claimIdleWithoutWaiting(resourcePool, claimStartNanos);
+			}
+
+			@Override
+			public PoolableObject<T> claim() throws InterruptedException {
+				return cluster.claimWithoutWaiting(resourcePool, claimStartNanos);
+			}
+
+			@Override
+			public int allocationRoom() {
+				return cluster.allocationRoom(resourcePool);
+			}
+		}, resourcePool, claimTimeout, claimStartNanos, getAsyncClaimScheduler(), getAllocationExecutor());
+	}
+
 	/**
 	 * Tries to claim the next resources from the pool in the given cluster. If the cluster key is unknown,
 	 * a new cluster is created with one resources pool to draw from. If the pool key is unknown, a new pool
@@ -149,11 +431,18 @@ public class ResourceClusters<ClusterKey, PoolKey, T> {
 	 */
 	@Nullable
 	public PoolableObject<T> claimResourceFromPool(final ResourceKey<ClusterKey, PoolKey> key) throws InterruptedException {
-		final ResourcePools<PoolKey, T> cluster = findOrCreateCluster(key.getClusterKey());
-		if (!cluster.containsPool(key.getPoolKey())) {
-			registerResourcePool(key);
+		final ResourceCluster<ClusterKey, PoolKey, T> resourceCluster = beginClaim(findOrCreateCluster(key.getClusterKey()));
+		final ResourcePools<PoolKey, T> cluster = resourceCluster.resourcePools;
+		try {
+			ResourcePool<PoolKey, T> resourcePool = cluster.findResourcePool(key.getPoolKey());
+			if (resourcePool == null) {
+				resourcePool = registerResourcePoolIfAbsent(key);
+			}
+			cluster.claimStarted(key.getPoolKey());
+			return cluster.claim(resourcePool, resourceCluster.claimTimeout);
+		} finally {
+			cluster.endClaim();
 		}
-		return cluster.claimResource(key.getPoolKey(), getClusterConfig(key.getClusterKey()).getClaimTimeout());
 	}
 
 	/**
@@ -176,64 +465,418 @@ public class ResourceClusters<ClusterKey, PoolKey, T> {
 	public PoolableObject<T> claimMatchingResourceFromPool(@NotNull final ResourceKey<ClusterKey, PoolKey> key,
 														  @NotNull final Predicate<PoolableObject<T>> predicate,
 														  @NotNull final Timeout claimTimeout) throws InterruptedException {
-		final ResourcePools<PoolKey, T> cluster = resourceClusters.get(key.getClusterKey());
-		if (cluster == null || !cluster.containsPool(key.getPoolKey())) {
+		final ResourcePools<PoolKey, T> cluster = findCluster(key.getClusterKey());
+		// an evicted cluster had no live objects, so there is nothing to match
+		if (cluster == null || !cluster.containsPool(key.getPoolKey()) || !cluster.tryBeginClaim()) {
+			return null;
+		}
+		try {
+			cluster.claimStarted(key.getPoolKey());
+			return cluster.claimMatchingResource(key.getPoolKey(), predicate, claimTimeout);
+		} finally {
+			cluster.endClaim();
+		}
+	}
+
+	/**
+	 * Claims an already available object matching the predicate from any pool in the cluster, trying the pool the cluster's load balancing
+	 * strategy selects first and then the other pools in cluster order, in a single pass. For example to reuse an already authenticated
+	 * connection wherever it is.
+	 * <p>
+	 * Like {@link #claimMatchingResourceFromPool(ResourceKey, Predicate, Timeout)}, this method does not register new pools or allocate new
+	 * resources, and it does not wait either: it returns {@code null} right away if no pool has a matching object available.
+	 */
+	@Nullable
+	public PoolableObject<T> claimMatchingResourceFromCluster(@NotNull final ClusterKey clusterKey,
+															 @NotNull final Predicate<PoolableObject<T>> predicate) throws InterruptedException {
+		final ResourceCluster<ClusterKey, PoolKey, T> resourceCluster = resourceClusters.get(clusterKey);
+		return resourceCluster != null ? claimMatchingResourceFromCluster(resourceCluster, predicate) : null;
+	}
+
+	@Nullable
+	PoolableObject<T> claimMatchingResourceFromCluster(@NotNull final ResourceCluster<ClusterKey, PoolKey, T> resourceCluster,
+													   @NotNull final Predicate<PoolableObject<T>> predicate) throws InterruptedException {
+		final ResourceCluster<ClusterKey, PoolKey, T> claimedCluster = beginClaimUnlessEvicted(resourceCluster);
+		// an evicted cluster had no live objects, so there is nothing to match
+		if (claimedCluster == null) {
 			return null;
 		}
-		return cluster.claimMatchingResource(key.getPoolKey(), predicate, claimTimeout);
+		final ResourcePools<PoolKey, T> cluster = claimedCluster.resourcePools;
+		try {
+			return cluster.claimMatchingFromAnyPool(claimedCluster.loadBalancingStrategy, predicate);
+		} finally {
+			cluster.endClaim();
+		}
 	}
 	
 	/**
-	 * @return The number of resources currently allocated and ready to be used.
+	 * Runs the given check on every object in every pool of every cluster that has been idle for at least the given time, for example to keep
+	 * connections alive or to weed out broken ones. Checks run on the given executor, at most the given number at a time; each checked object is
+	 * released back to its pool if the check passes and invalidated otherwise.
+	 * <p>
+	 * Objects are only claimed once a check can start, so they are never held out of their pools while waiting for a turn. Like
+	 * {@link #claimMatchingResourceFromCluster(Object, Predicate)}, this does not register pools or allocate objects.
+	 *
+	 * @param minIdleAge Must be more than zero, as checked objects become idle again once released.
+	 * @return The number of objects checked and invalidated and how long the sweep took, once all checks have finished.
+	 * @throws IllegalArgumentException if the minimum idle age is zero or the concurrency limit less than 1.
 	 */
-	public int countLiveResources() {
-		int total = 0;
-		for (final ResourcePools<PoolKey, T> resourcePools : resourceClusters.values()) {
-			total += resourcePools.currentlyAllocated();
+	@NotNull
+	public IdleSweepResult sweepIdleResources(@NotNull final Timeout minIdleAge,
+											  @NotNull final IdleResourceCheck<T> check,
+											  @NotNull final Executor executor,
+											  final int maxConcurrentChecks) throws InterruptedException {
+		if (minIdleAge.getDurationMs() <= 0 || maxConcurrentChecks < 1) {
+			throw new IllegalArgumentException(format("Idle sweep needs a minimum idle age above zero and at least one concurrent check, got %s ms and %s",
+					minIdleAge.getDurationMs(), maxConcurrentChecks));
+		}
+		final List<ResourcePool<PoolKey, T>> pools = new ArrayList<>();
+		for (final ResourceCluster<ClusterKey, PoolKey, T> resourceCluster : resourceClusters.values()) {
+			pools.addAll(resourceCluster.resourcePools.getPools());
 		}
-		return total;
+		return new IdleSweep<>(minIdleAge.getDurationMs(), check, executor, maxConcurrentChecks).sweep(pools);
+	}
+
+	/**
+	 * Returns a future that completes once every pool currently in the given cluster has allocated up to its core pool size, for example to only
+	 * route traffic to a cluster once it is warm. Pools allocate their core objects on their own, in parallel but limited by
+	 * {@link ClusterConfig#getMaxConcurrentAllocations()}; this only observes their progress, without blocking a thread.
+	 * <p>
+	 * Completes right away for unknown clusters and pools without a core size. Pools that are shut down meanwhile are no longer waited for.
+	 * Completes exceptionally if a pool is {@link ClusterConfig#getPoolEjection() ejected} before it is warm, as its allocations keep failing.
+	 * Progress is no longer checked once the future is cancelled.
+	 */
+	@NotNull
+	public CompletableFuture<Void> warmUp(@NotNull final ClusterKey clusterKey) {
+		return warmUp(clusterKey, ForeverTimeout.WAIT_FOREVER);
+	}
+
+	/**
+	 * Like {@link #warmUp(Object)}, but completes exceptionally with a {@link java.util.concurrent.TimeoutException} if the pools are not
+	 * warm within the given time, for example because their allocations keep failing without ejecting them.
+	 */
+	@NotNull
+	public CompletableFuture<Void> warmUp(@NotNull final ClusterKey clusterKey, @NotNull final Timeout warmUpTimeout) {
+		final ResourcePools<PoolKey, T> cluster = findCluster(clusterKey);
+		if (cluster == null) {
+			return CompletableFuture.completedFuture(null);
+		}
+		return cluster.warmUp(cluster.getPools(), warmUpTimeout, getAsyncClaimScheduler());
+	}
+
+	/**
+	 * Like {@link #warmUp(Object)}, but for a single pool, which is registered on-the-fly with the cluster defaults if needed.
+	 */
+	@NotNull
+	public CompletableFuture<Void> warmUp(@NotNull final ResourceKey<ClusterKey, PoolKey> key) {
+		return warmUp(key, ForeverTimeout.WAIT_FOREVER);
+	}
+
+	/**
+	 * Like {@link #warmUp(Object, Timeout)}, but for a single pool, which is registered on-the-fly with the cluster defaults if needed.
+	 */
+	@NotNull
+	public CompletableFuture<Void> warmUp(@NotNull final ResourceKey<ClusterKey, PoolKey> key, @NotNull final Timeout warmUpTimeout) {
+		final ResourcePools<PoolKey, T> cluster = findOrCreateCluster(key.getClusterKey()).resourcePools;
+		ResourcePool<PoolKey, T> resourcePool = cluster.findResourcePool(key.getPoolKey());
+		if (resourcePool == null) {
+			resourcePool = registerResourcePoolIfAbsent(key);
+		}
+		return cluster.warmUp(Collections.singletonList(resourcePool), warmUpTimeout, getAsyncClaimScheduler());
+	}
+
+	/**
+	 * @return An immutable snapshot of the claim, allocation and latency figures of every cluster and each of its pools. Recording these
+	 * figures only costs a few uncontended counter increments per claim, so they are always available.
+	 */
+	@NotNull
+	public Map<ClusterKey, ResourceClusterMetrics<PoolKey>> getMetrics() {
+		final Map<ClusterKey, ResourceClusterMetrics<PoolKey>> metrics = new HashMap<>();
+		for (final Map.Entry<ClusterKey, ResourceCluster<ClusterKey, PoolKey, T>> cluster : resourceClusters.entrySet()) {
+			metrics.put(cluster.getKey(), cluster.getValue().resourcePools.getMetrics());
+		}
+		return Collections.unmodifiableMap(metrics);
+	}
+
+	/**
+	 * @return The number of resources currently allocated and not yet deallocated, including those of pools that are still shutting down.
+	 * Maintained on allocation and deallocation, so this is a constant-time read.
+	 */
+	public int countLiveResources() {
+		return liveResources.get();
+	}
+
+	/**
+	 * @return The number of resources currently allocated and not yet deallocated in the given cluster, or 0 if the cluster is unknown.
+	 * @see #countLiveResources()
+	 */
+	public int countLiveResources(@NotNull final ClusterKey clusterKey) {
+		final ResourcePools<PoolKey, T> cluster = findCluster(clusterKey);
+		return cluster != null ? cluster.getLiveResources().get() : 0;
 	}
 	
 	/**
 	 * Delegates to {@link #shutdownPool(Object)} with empty pool key.
 	 */
 	@SuppressWarnings("UnusedReturnValue")
-	public synchronized Future<?> shutDown() {
+	public Future<?> shutDown() {
 		return shutdownPool(null);
 	}
 	
 	/**
 	 * Tells all generic-object-pool pools [for the specified pool key] to shutdown and removes them from the clusters.<p>
 	 * After calling this, the cluster is ready for more work as if it was just created.
+	 * <p>
+	 * The returned future is a {@link CompletableFuture} composed from the pools' own shutdown futures, so no thread is dedicated to waiting for
+	 * the shutdown to complete. It is declared as a plain {@link Future} to stay compatible with code compiled against earlier versions.
 	 */
 	@SuppressWarnings("WeakerAccess")
-	public synchronized Future<Void> shutdownPool(@Nullable final PoolKey key) {
-		final List<Future<Void>> poolsShuttingDown = new ArrayList<>();
-		for (final ResourcePools<PoolKey, T> resourcePools : resourceClusters.values()) {
-			poolsShuttingDown.add(resourcePools.shutdownPool(key));
+	public Future<Void> shutdownPool(@Nullable final PoolKey key) {
+		final List<CompletableFuture<Void>> poolsShuttingDown = new ArrayList<>();
+		for (final ResourceCluster<ClusterKey, PoolKey, T> resourceCluster : resourceClusters.values()) {
+			synchronized (registrationLock(resourceCluster.getClusterKey())) {
+				poolsShuttingDown.add(resourceCluster.resourcePools.shutdownPool(key));
+			}
+		}
+		return CompletableFutures.allOf(poolsShuttingDown);
+	}
+
+	/**
+	 * Returns the handle to the given cluster, creating the cluster if needed like {@link #claimResourceFromCluster(Object)} does. Claiming
+	 * through the handle skips looking up the cluster and its config by key on every claim.
+	 */
+	@NotNull
+	public ResourceCluster<ClusterKey, PoolKey, T> getResourceCluster(@NotNull final ClusterKey clusterKey) {
+		return findOrCreateCluster(clusterKey);
+	}
+
+	/**
+	 * @return The pools of the given cluster, or {@code null} if the cluster is unknown.
+	 */
+	@Nullable
+	private ResourcePools<PoolKey, T> findCluster(final ClusterKey clusterKey) {
+		final ResourceCluster<ClusterKey, PoolKey, T> resourceCluster = resourceClusters.get(clusterKey);
+		return resourceCluster != null ? resourceCluster.resourcePools : null;
+	}
+
+	/**
+	 * Lock-free for known clusters, only new clusters are created while holding their registration lock.
+	 */
+	@NotNull
+	private ResourceCluster<ClusterKey, PoolKey, T> findOrCreateCluster(final ClusterKey clusterKey) {
+		final ResourceCluster<ClusterKey, PoolKey, T> resourceCluster = resourceClusters.get(clusterKey);
+		return resourceCluster != null ? resourceCluster : createClusterIfAbsent(clusterKey);
+	}
+
+	@NotNull
+	private ResourceCluster<ClusterKey, PoolKey, T> createClusterIfAbsent(final ClusterKey clusterKey) {
+		synchronized (registrationLock(clusterKey)) {
+			ResourceCluster<ClusterKey, PoolKey, T> resourceCluster = resourceClusters.get(clusterKey);
+			if (resourceCluster == null) {
+				final ClusterConfig<ClusterKey, PoolKey, T> clusterConfig = getClusterConfig(clusterKey);
+				@SuppressWarnings("unchecked") // the config holds the strategy as a raw type
+				final LoadBalancingStrategy<ResourcePool<PoolKey, T>, Collection<ResourcePool<PoolKey, T>>> loadBalancingStrategy = clusterConfig.getLoadBalancingStrategy();
+				final ClaimListener<ClusterKey, PoolKey, T> claimListener = clusterConfig.getClaimListener();
+				final ResourcePools<PoolKey, T> cluster = new ResourcePools<>(loadBalancingStrategy.createCollectionForCycling(),
+						claimListener != null ? new ClusterClaimListener<>(clusterKey, claimListener) : null,
+						liveResources, clusterConfig.getMaxConcurrentAllocations(), clusterConfig.getMaxResources(), clusterConfig.isThreadAffineClaims(),
+						clusterConfig.getEvictIdleClusterAfter() != null);
+				resourceCluster = new ResourceCluster<>(this, clusterKey, clusterConfig, cluster);
+				resourceClusters.put(clusterKey, resourceCluster);
+				final AdaptivePoolSizing adaptivePoolSizing = clusterConfig.getAdaptivePoolSizing();
+				if (adaptivePoolSizing != null) {
+					scheduleAdaptivePoolSizing(cluster, adaptivePoolSizing);
+				}
+				final Timeout evictIdleClusterAfter = clusterConfig.getEvictIdleClusterAfter();
+				if (evictIdleClusterAfter != null) {
+					startIdleClusterSweep(evictIdleClusterAfter);
+				}
+			}
+			return resourceCluster;
 		}
-		return CompositeFuturesAsFutureTask.ofFutures(poolsShuttingDown);
 	}
 
-	private synchronized ResourcePools<PoolKey, T> findOrCreateCluster(final ClusterKey clusterKey) {
-		if (!resourceClusters.containsKey(clusterKey)) {
-			Collection<ResourcePool<PoolKey, T>> collectionForCycling = getLoadBalancingStrategy(clusterKey).createCollectionForCycling();
-			resourceClusters.put(clusterKey, new ResourcePools<>(collectionForCycling));
+	/**
+	 * Checks at half the shortest idle time of all clusters with eviction created so far, so the sweep stays a single task on the scheduler no
+	 * matter how many clusters there are.
+	 */
+	private synchronized void startIdleClusterSweep(final Timeout evictIdleClusterAfter) {
+		final long sweepIntervalMs = Math.max(1, evictIdleClusterAfter.getDurationMs() / 2);
+		if (idleClusterSweep == null || sweepIntervalMs < idleClusterSweepIntervalMs) {
+			if (idleClusterSweep != null) {
+				idleClusterSweep.cancel(false);
+			}
+			idleClusterSweepIntervalMs = sweepIntervalMs;
+			idleClusterSweep = getAsyncClaimScheduler().scheduleWithFixedDelay(new Runnable() {
+				@Override
+				public void run() {
+					evictIdleClusters();
+				}
+			}, sweepIntervalMs, sweepIntervalMs, MILLISECONDS);
 		}
-		return resourceClusters.get(clusterKey);
 	}
 
-	private synchronized ResourcePool<PoolKey, T> cycleToNextPool(final ClusterKey clusterKey) {
-		ResourcePools<PoolKey, T> cluster = findOrCreateCluster(clusterKey);
-		if (cluster.getClusterCollection().isEmpty()) {
-			throw new IllegalStateException(format("Cluster contains no pools to draw from for key '%s'", cluster));
+	private void evictIdleClusters() {
+		for (final ResourceCluster<ClusterKey, PoolKey, T> resourceCluster : resourceClusters.values()) {
+			final Timeout evictIdleClusterAfter = resourceCluster.getClusterConfig().getEvictIdleClusterAfter();
+			if (evictIdleClusterAfter != null && resourceCluster.resourcePools.isIdleFor(MILLISECONDS.toNanos(evictIdleClusterAfter.getDurationMs()))) {
+				evictCluster(resourceCluster);
+			}
 		}
-		return getLoadBalancingStrategy(clusterKey).cycle(cluster.getClusterCollection());
 	}
 
-	@SuppressWarnings("unchecked")
+	/**
+	 * Pools are only registered while holding the cluster's registration lock, so the cluster cannot get a new pool between the final idle check
+	 * and its removal. Claims don't take that lock, so the cluster is only marked as evicted if no claim is in flight, after which new claims
+	 * look up its replacement, see {@link #beginClaim(ResourceCluster)}.
+	 * <p>
+	 * A config registered with {@link #registerResourceCluster(Object, ClusterConfig)} is kept, so the replacing cluster uses it as well.
+	 */
+	private void evictCluster(final ResourceCluster<ClusterKey, PoolKey, T> resourceCluster) {
+		synchronized (registrationLock(resourceCluster.getClusterKey())) {
+			final ResourcePools<PoolKey, T> cluster = resourceCluster.resourcePools;
+			if (cluster.isIdleFor(0) && cluster.tryMarkEvicted() && resourceClusters.remove(resourceCluster.getClusterKey(), resourceCluster)) {
+				cluster.evict();
+			}
+		}
+	}
+
+	/**
+	 * Counts a claim as in flight on the given cluster, or on the cluster that replaces it if it was evicted meanwhile, which must be ended with
+	 * {@link ResourcePools#endClaim()}.
+	 *
+	 * @return The cluster to claim from.
+	 */
+	@NotNull
+	private ResourceCluster<ClusterKey, PoolKey, T> beginClaim(@NotNull final ResourceCluster<ClusterKey, PoolKey, T> resourceCluster) {
+		ResourceCluster<ClusterKey, PoolKey, T> claimedCluster = resourceCluster;
+		while (!claimedCluster.resourcePools.tryBeginClaim()) {
+			claimedCluster = findOrCreateCluster(claimedCluster.getClusterKey());
+		}
+		return claimedCluster;
+	}
+
+	/**
+	 * Like {@link #beginClaim(ResourceCluster)}, but doesn't create a cluster to replace an evicted one, for claims that would find nothing in a
+	 * new cluster anyway.
+	 *
+	 * @return The cluster to claim from, or {@code null} if the cluster was evicted and not created again since.
+	 */
+	@Nullable
+	private ResourceCluster<ClusterKey, PoolKey, T> beginClaimUnlessEvicted(@NotNull final ResourceCluster<ClusterKey, PoolKey, T> resourceCluster) {
+		ResourceCluster<ClusterKey, PoolKey, T> claimedCluster = resourceCluster;
+		while (!claimedCluster.resourcePools.tryBeginClaim()) {
+			claimedCluster = resourceClusters.get(claimedCluster.getClusterKey());
+			if (claimedCluster == null) {
+				return null;
+			}
+		}
+		return claimedCluster;
+	}
+
+	private void scheduleAdaptivePoolSizing(final ResourcePools<PoolKey, T> cluster, final AdaptivePoolSizing adaptivePoolSizing) {
+		final long adjustmentIntervalMs = adaptivePoolSizing.getAdjustmentInterval().getDurationMs();
+		cluster.addMaintenanceTask(getAsyncClaimScheduler().scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					cluster.adjustAdaptivePoolSizes(adaptivePoolSizing);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}, adjustmentIntervalMs, adjustmentIntervalMs, MILLISECONDS));
+	}
+
+	/**
+	 * Guards against concurrent on-the-fly registration of the same pool, where the loser would otherwise get an {@link IllegalArgumentException}.
+	 */
+	@NotNull
+	private ResourcePool<PoolKey, T> registerResourcePoolIfAbsent(final ResourceKey<ClusterKey, PoolKey> key) {
+		synchronized (registrationLock(key.getClusterKey())) {
+			final ResourcePool<PoolKey, T> existingPool = findOrCreateCluster(key.getClusterKey()).resourcePools.findResourcePool(key.getPoolKey());
+			if (existingPool != null) {
+				return existingPool;
+			}
+			final ClusterConfig<ClusterKey, PoolKey, T> clusterConfig = getClusterConfig(key.getClusterKey());
+			return createResourcePool(key, clusterConfig.getDefaultExpirationPolicy(), clusterConfig.getDefaultCorePoolSize(), clusterConfig.getDefaultMaxPoolSize(), 1);
+		}
+	}
+
+	@NotNull
+	private Object registrationLock(@NotNull final ClusterKey clusterKey) {
+		final int hash = clusterKey.hashCode();
+		return registrationLocks[(hash ^ (hash >>> 16)) & (REGISTRATION_LOCK_STRIPES - 1)];
+	}
+
+	/**
+	 * Created on the first asynchronous claim, warm-up or cluster with adaptive pool sizing or eviction. Its single daemon thread only runs short
+	 * retry, timeout, progress checking, pool size adjustment and idle cluster sweeping tasks.
+	 */
+	@NotNull
+	private ScheduledExecutorService getAsyncClaimScheduler() {
+		final ScheduledExecutorService scheduler = asyncClaimScheduler;
+		return scheduler != null ? scheduler : createAsyncClaimSchedulerIfAbsent();
+	}
+
+	@NotNull
+	private synchronized ScheduledExecutorService createAsyncClaimSchedulerIfAbsent() {
+		ScheduledExecutorService scheduler = asyncClaimScheduler;
+		if (scheduler == null) {
+			final ScheduledThreadPoolExecutor newScheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+				@Override
+				public Thread newThread(@NotNull final Runnable runnable) {
+					final Thread thread = new Thread(runnable, "clustered-object-pool-async-claims");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			newScheduler.setRemoveOnCancelPolicy(true);
+			scheduler = asyncClaimScheduler = newScheduler;
+		}
+		return scheduler;
+	}
+
+	/**
+	 * Created on the first asynchronous claim or pool with {@link PoolEjection}. Runs the allocations of queued asynchronous claims and the probes
+	 * of ejected pools on at most {@link ClusterConfig#getAllocationThreads()} daemon threads that end after a minute without work, so the user's
+	 * allocator never runs on the scheduler.
+	 */
 	@NotNull
-	private LoadBalancingStrategy<ResourcePool<PoolKey, T>, Collection<ResourcePool<PoolKey, T>>> getLoadBalancingStrategy(final ClusterKey clusterKey) {
-		return getClusterConfig(clusterKey).getLoadBalancingStrategy();
+	private Executor getAllocationExecutor() {
+		final Executor executor = allocationExecutor;
+		return executor != null ? executor : createAllocationExecutorIfAbsent();
+	}
+
+	@NotNull
+	private synchronized Executor createAllocationExecutorIfAbsent() {
+		Executor executor = allocationExecutor;
+		if (executor == null) {
+			final int threads = clusterConfig.getAllocationThreads();
+			final ThreadPoolExecutor newExecutor = new ThreadPoolExecutor(threads, threads, 60, SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+				@Override
+				public Thread newThread(@NotNull final Runnable runnable) {
+					final Thread thread = new Thread(runnable, "clustered-object-pool-allocations");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			newExecutor.allowCoreThreadTimeOut(true);
+			executor = allocationExecutor = newExecutor;
+		}
+		return executor;
+	}
+
+	private ResourcePool<PoolKey, T> cycleToNextPool(final ResourceCluster<ClusterKey, PoolKey, T> resourceCluster) {
+		final ResourcePool<PoolKey, T> nextPool = resourceCluster.resourcePools.cycleToPoolWithCapacity(resourceCluster.loadBalancingStrategy);
+		if (nextPool == null) {
+			throw new IllegalStateException(format("Cluster contains no pools to draw from for key '%s'", resourceCluster.getClusterKey()));
+		}
+		return nextPool;
+	}
+
+	@Nullable
+	private ClaimListener<ClusterKey, PoolKey, T> getClaimListener(final ClusterKey clusterKey) {
+		return getClusterConfig(clusterKey).getClaimListener();
 	}
 }
@@ -1,7 +1,12 @@
 package org.bbottema.clusteredobjectpool.core;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.Value;
+import org.bbottema.clusteredobjectpool.core.api.LoadAwarePool;
+import org.bbottema.clusteredobjectpool.core.api.ResourcePoolMetrics;
+import org.bbottema.clusteredobjectpool.util.CompletableFutures;
 import org.bbottema.genericobjectpool.GenericObjectPool;
 import org.bbottema.genericobjectpool.PoolMetrics;
 import org.bbottema.genericobjectpool.PoolableObject;
@@ -9,34 +14,266 @@ import org.bbottema.genericobjectpool.util.Timeout;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.concurrent.Future;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Predicate;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
 /**
- * Serves to keep track of the poolKey associated with the generic-object-pool pool.
+ * Serves to keep track of the poolKey (and its load balancing weight and statistics) associated with the generic-object-pool pool.
  */
 @Value
 @SuppressFBWarnings(justification = "Generated code")
-class ResourcePool<PoolKey, T> {
+class ResourcePool<PoolKey, T> implements LoadAwarePool {
+	private static final Timeout NO_WAIT = new Timeout(0, MILLISECONDS);
+
 	final PoolKey poolKey;
 	final GenericObjectPool<T> pool;
+	final int weight;
+	@Getter(AccessLevel.NONE)
+	final ResourcePoolStatistics statistics;
+	/**
+	 * Only set if the cluster uses {@link AdaptivePoolSizing}.
+	 */
+	@Nullable
+	final AdaptiveMaxPoolSize adaptiveMaxPoolSize;
+	/**
+	 * Only set if the cluster uses {@link PoolEjection}.
+	 */
+	@Nullable
+	@Getter(AccessLevel.NONE)
+	final PoolHealth health;
+	@Getter(AccessLevel.NONE)
+	final OutstandingClaims<T> outstandingClaims;
+	@Getter(AccessLevel.NONE)
+	final LiveResourceCounter liveResources;
+
+	ResourcePool(final PoolKey poolKey, final GenericObjectPool<T> pool) {
+		this(poolKey, pool, 1, new ResourcePoolStatistics(), new OutstandingClaims<T>(), new LiveResourceCounter(), null, null);
+	}
+
+	/**
+	 * @param statistics        Should be the same instance the pool's {@link InstrumentedAllocator} records to.
+	 * @param outstandingClaims Should be the same instance the pool's {@link InstrumentedAllocator} reports returned objects to.
+	 * @param liveResources     Should be the same instance the pool's {@link InstrumentedAllocator} counts allocations with.
+	 */
+	ResourcePool(final PoolKey poolKey, final GenericObjectPool<T> pool, final int weight, final ResourcePoolStatistics statistics,
+				 final OutstandingClaims<T> outstandingClaims, final LiveResourceCounter liveResources,
+				 @Nullable final AdaptiveMaxPoolSize adaptiveMaxPoolSize, @Nullable final PoolHealth health) {
+		this.poolKey = poolKey;
+		this.pool = pool;
+		this.weight = weight;
+		this.statistics = statistics;
+		this.outstandingClaims = outstandingClaims;
+		this.liveResources = liveResources;
+		this.adaptiveMaxPoolSize = adaptiveMaxPoolSize;
+		this.health = health;
+	}
 	
-	Future<Void> clearPool() {
-		return pool.shutdown();
+	CompletableFuture<Void> clearPool() {
+		if (health != null) {
+			health.stop();
+		}
+		return CompletableFutures.toCompletableFuture(pool.shutdown());
 	}
 	
+	/**
+	 * @param claimStartNanos When the claim started, which may be before this attempt, so the claim's full wait time is recorded.
+	 */
+	@Nullable
+	PoolableObject<T> claim(Timeout claimTimeout, final long claimStartNanos) throws InterruptedException {
+		PoolableObject<T> claimed = null;
+		outstandingClaims.claimStarted();
+		try {
+			return claimed = pool.claim(claimTimeout);
+		} catch (ClaimAllocation.AllocationAbandonedException e) {
+			return abandonedClaim();
+		} finally {
+			outstandingClaims.claimEnded(claimed);
+			statistics.recordClaim(claimStartNanos, claimed != null);
+		}
+	}
+
+	/**
+	 * Unlike a claim with a timeout, finding this pool saturated is not counted as a timeout, as the caller moves on to other pools or queues the claim.
+	 *
+	 * @param claimStartNanos When the claim started, see {@link #claim(Timeout, long)}.
+	 * @return An available object, or {@code null} if this pool is saturated.
+	 */
 	@Nullable
-	PoolableObject<T> claim(Timeout claimTimeout) throws InterruptedException {
-		return pool.claim(claimTimeout);
+	PoolableObject<T> claimWithoutWaiting(final long claimStartNanos) throws InterruptedException {
+		PoolableObject<T> claimed = null;
+		outstandingClaims.claimStarted();
+		try {
+			claimed = pool.claim(NO_WAIT);
+		} catch (ClaimAllocation.AllocationAbandonedException e) {
+			return abandonedClaim();
+		} finally {
+			outstandingClaims.claimEnded(claimed);
+		}
+		if (claimed != null) {
+			statistics.recordClaim(claimStartNanos, true);
+		}
+		return claimed;
+	}
+
+	/**
+	 * @return {@code null}, for a claim that ran out of time waiting for a turn to allocate, see {@link ClaimAllocation}.
+	 * @throws InterruptedException if the claim gave up because its thread was interrupted.
+	 */
+	@Nullable
+	private PoolableObject<T> abandonedClaim() throws InterruptedException {
+		if (Thread.interrupted()) {
+			throw new InterruptedException();
+		}
+		return null;
 	}
 
 	@Nullable
 	PoolableObject<T> claimMatching(Predicate<PoolableObject<T>> predicate, Timeout claimTimeout) throws InterruptedException {
-		return pool.claimMatching(predicate, claimTimeout);
+		final long claimStartNanos = System.nanoTime();
+		PoolableObject<T> claimed = null;
+		outstandingClaims.claimStarted();
+		try {
+			return claimed = pool.claimMatching(predicate, claimTimeout);
+		} finally {
+			outstandingClaims.claimEnded(claimed);
+			statistics.recordClaim(claimStartNanos, claimed != null);
+		}
+	}
+
+	/**
+	 * Like {@link #claimWithoutWaiting(long)}, only counting the claim if a matching object was available. Never allocates.
+	 */
+	@Nullable
+	PoolableObject<T> claimMatchingWithoutWaiting(Predicate<PoolableObject<T>> predicate, final long claimStartNanos) throws InterruptedException {
+		final PoolableObject<T> claimed = claimMatchingUncounted(predicate);
+		if (claimed != null) {
+			statistics.recordClaim(claimStartNanos, true);
+		}
+		return claimed;
+	}
+
+	/**
+	 * Like {@link #claimWithoutWaiting(long)}, but only claims an idle object, so it never runs the allocator.
+	 */
+	@Nullable
+	PoolableObject<T> claimIdleWithoutWaiting(final long claimStartNanos) throws InterruptedException {
+		return claimMatchingWithoutWaiting(new Predicate<PoolableObject<T>>() {
+			@Override
+			public boolean test(final PoolableObject<T> poolableObject) {
+				return true;
+			}
+		}, claimStartNanos);
+	}
+
+	/**
+	 * Deallocates one available object that has been idle for at least the given time, without counting it as a claim.
+	 *
+	 * @return Whether such an object was found.
+	 */
+	boolean deallocateIdle(final long minIdleAgeMs) throws InterruptedException {
+		final PoolableObject<T> idleObject = claimIdle(minIdleAgeMs);
+		if (idleObject != null) {
+			idleObject.invalidate();
+		}
+		return idleObject != null;
+	}
+
+	/**
+	 * Claims one available object that has been idle for at least the given time, for maintenance, so without counting it as a claim.
+	 */
+	@Nullable
+	PoolableObject<T> claimIdle(final long minIdleAgeMs) throws InterruptedException {
+		return claimMatchingUncounted(new Predicate<PoolableObject<T>>() {
+			@Override
+			public boolean test(final PoolableObject<T> poolableObject) {
+				return poolableObject.idleAgeMs() >= minIdleAgeMs;
+			}
+		});
+	}
+
+	/**
+	 * Claims an available matching object without waiting and without recording the claim in the statistics. It still counts as an
+	 * outstanding claim while the object is held.
+	 */
+	@Nullable
+	private PoolableObject<T> claimMatchingUncounted(@NotNull final Predicate<PoolableObject<T>> predicate) throws InterruptedException {
+		PoolableObject<T> claimed = null;
+		outstandingClaims.claimStarted();
+		try {
+			return claimed = pool.claimMatching(predicate, NO_WAIT);
+		} finally {
+			outstandingClaims.claimEnded(claimed);
+		}
+	}
+
+	/**
+	 * @return Whether claims on the cluster should skip this pool, see {@link PoolEjection}.
+	 */
+	boolean isEjected() {
+		return health != null && health.isEjected();
+	}
+
+	long getClaimAttempts() {
+		return statistics.getClaimAttempts();
+	}
+
+	/**
+	 * For claims that gave up waiting on this pool outside of the pool itself, such as asynchronous claims, recording their wait time as well.
+	 */
+	void recordClaimTimeout(final long claimStartNanos) {
+		statistics.recordClaim(claimStartNanos, false);
+	}
+	
+	@NotNull
+	ResourcePoolMetrics getMetrics() {
+		final PoolMetrics poolMetrics = pool.getPoolMetrics();
+		return statistics.snapshot(poolMetrics, adaptiveMaxPoolSize != null ? adaptiveMaxPoolSize.getMaxPoolSize() : poolMetrics.getMaxPoolSize(),
+				isEjected(), health != null ? health.getEjections() : 0);
 	}
 	
 	@NotNull
 	PoolMetrics getPoolMetrics() {
 		return pool.getPoolMetrics();
 	}
+
+	/**
+	 * Like {@link #getOutstandingClaims()}, read without taking the pool's lock.
+	 */
+	int getClaimedObjects() {
+		return outstandingClaims.getClaimedObjects();
+	}
+
+	/**
+	 * @return Objects allocated and not yet deallocated, not counting allocations in progress.
+	 */
+	int getLiveResources() {
+		return liveResources.get();
+	}
+
+	/**
+	 * Like {@link #getOutstandingClaims()}, read without taking the pool's lock, so it can be wrong for a moment while objects change hands.
+	 */
+	boolean hasIdleObject() {
+		return liveResources.get() > outstandingClaims.getClaimedObjects();
+	}
+
+	/**
+	 * Read without taking the pool's lock, as load balancing strategies read it on every claim, see {@link OutstandingClaims}.
+	 */
+	@Override
+	public int getOutstandingClaims() {
+		return outstandingClaims.get();
+	}
+
+	@Override
+	public long getClaimLatencyNanos() {
+		return statistics.getClaimLatencyNanos();
+	}
+
+	@Override
+	public long getAllocationLatencyNanos() {
+		return statistics.getAllocationLatencyNanos();
+	}
 }
@@ -0,0 +1,108 @@
+package org.bbottema.clusteredobjectpool.core;
+
+import org.bbottema.clusteredobjectpool.core.api.ResourcePoolMetrics;
+import org.bbottema.clusteredobjectpool.util.AtomicEwma;
+import org.bbottema.clusteredobjectpool.util.LatencyHistogram;
+import org.bbottema.genericobjectpool.PoolMetrics;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Latency figures and counters of a single resource pool, recorded on the claim and allocation paths without locking or allocating.
+ */
+class ResourcePoolStatistics {
+
+	private static final long LATENCY_DECAY_SECONDS = 5;
+
+	private final AtomicEwma claimLatency = new AtomicEwma(LATENCY_DECAY_SECONDS, SECONDS);
+	private final AtomicEwma allocationLatency = new AtomicEwma(LATENCY_DECAY_SECONDS, SECONDS);
+	private final LatencyHistogram claimWaitHistogram = new LatencyHistogram();
+	private final LatencyHistogram allocationLatencyHistogram = new LatencyHistogram();
+	private final LongAdder claims = new LongAdder();
+	private final LongAdder releases = new LongAdder();
+	private final LongAdder invalidations = new LongAdder();
+	private final LongAdder timeouts = new LongAdder();
+	private final LongAdder allocations = new LongAdder();
+	private final LongAdder deallocations = new LongAdder();
+
+	/**
+	 * @param claimStartNanos When the claim started, including any time it spent on other pools or waiting before its final attempt.
+	 * @param claimed         Whether the claim returned an object, rather than timing out.
+	 */
+	void recordClaim(final long claimStartNanos, final boolean claimed) {
+		final long claimWaitNanos = System.nanoTime() - claimStartNanos;
+		claimLatency.update(claimWaitNanos);
+		claimWaitHistogram.record(claimWaitNanos);
+		(claimed ? claims : timeouts).increment();
+	}
+
+	/**
+	 * @param allocated Whether the allocator returned an object, rather than failing.
+	 */
+	void recordAllocation(final long allocationStartNanos, final boolean allocated) {
+		final long allocationNanos = System.nanoTime() - allocationStartNanos;
+		allocationLatency.update(allocationNanos);
+		allocationLatencyHistogram.record(allocationNanos);
+		if (allocated) {
+			allocations.increment();
+		}
+	}
+
+	void recordDeallocation() {
+		deallocations.increment();
+	}
+
+	/**
+	 * A claimed object was returned to the pool for reuse.
+	 */
+	void recordRelease() {
+		releases.increment();
+	}
+
+	/**
+	 * A claimed object was deallocated when it was returned, rather than reused.
+	 */
+	void recordInvalidation() {
+		invalidations.increment();
+	}
+
+	/**
+	 * @return Claims and timeouts so far, which only grows while the pool is in use.
+	 */
+	long getClaimAttempts() {
+		return claims.sum() + timeouts.sum();
+	}
+
+	long getClaimLatencyNanos() {
+		return claimLatency.getNanos();
+	}
+
+	long getAllocationLatencyNanos() {
+		return allocationLatency.getNanos();
+	}
+
+	/**
+	 * @param maxPoolSize The max pool size currently in effect.
+	 */
+	@NotNull
+	ResourcePoolMetrics snapshot(@NotNull final PoolMetrics poolMetrics, final int maxPoolSize, final boolean ejected, final long ejections) {
+		final int inUse = poolMetrics.getCurrentlyClaimed();
+		return new ResourcePoolMetrics(
+				claims.sum(),
+				releases.sum(),
+				invalidations.sum(),
+				timeouts.sum(),
+				allocations.sum(),
+				deallocations.sum(),
+				inUse,
+				Math.max(0, poolMetrics.getCurrentlyAllocated() - inUse),
+				maxPoolSize,
+				ejected,
+				ejections,
+				claimWaitHistogram.snapshot(),
+				allocationLatencyHistogram.snapshot());
+	}
+}
@@ -1,55 +1,195 @@
 package org.bbottema.clusteredobjectpool.core;
 
-import lombok.AccessLevel;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import lombok.ToString;
-import org.bbottema.clusteredobjectpool.util.CompositeFuturesAsFutureTask;
+import org.bbottema.clusteredobjectpool.core.api.LoadBalancingStrategy;
+import org.bbottema.clusteredobjectpool.core.api.ResourceClusterMetrics;
+import org.bbottema.clusteredobjectpool.core.api.ResourcePoolMetrics;
+import org.bbottema.clusteredobjectpool.util.CompletableFutures;
+import org.bbottema.clusteredobjectpool.util.LatencyHistogram;
+import org.bbottema.genericobjectpool.PoolMetrics;
 import org.bbottema.genericobjectpool.PoolableObject;
 import org.bbottema.genericobjectpool.util.Timeout;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Future;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
 import java.util.function.Predicate;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
 /**
  * Serves to hide some methods that iterate over a cluster of pools.
+ * <p>
+ * The cycling collection is owned by the load balancing strategy and is not necessarily thread-safe, so every access is guarded by the
+ * collection's own monitor. This makes the lock per cluster rather than global, so claims in different clusters never contend. Strategies that
+ * {@link LoadBalancingStrategy#supportsConcurrentCycling() support concurrent cycling} are cycled without taking that lock at all.
  */
-@RequiredArgsConstructor
 @ToString
 class ResourcePools<PoolKey, T> {
-	@Getter(AccessLevel.PACKAGE)
+	/**
+	 * Upper bound for parking between failover scans (or adaptive pool size checks), in case a pool frees capacity without going through the
+	 * allocator (and thus without signalling).
+	 */
+	private static final long MAX_FAILOVER_PARK_NANOS = MILLISECONDS.toNanos(10);
+
 	private final Collection<ResourcePool<PoolKey, T>> clusterCollection;
-	private final Map<ResourcePool<PoolKey, T>, Future<Void>> poolsShuttingDown = new ConcurrentHashMap<>();
+	/**
+	 * Hash index next to the cycling collection for keyed claims, updated together with the collection while holding its lock.
+	 */
+	private final Map<PoolKey, ResourcePool<PoolKey, T>> poolsByKey = new ConcurrentHashMap<>();
+	/**
+	 * Copy-on-write snapshot of the pools in the order they were added, replaced together with the collection while holding its lock, so claims
+	 * can walk all pools without cycling the strategy again or taking the lock.
+	 */
+	private volatile List<ResourcePool<PoolKey, T>> poolSnapshot = Collections.emptyList();
+	private final Map<ResourcePool<PoolKey, T>, CompletableFuture<Void>> poolsShuttingDown = new ConcurrentHashMap<>();
+	@Getter
+	private final ReleaseSignal releaseSignal = new ReleaseSignal();
+	@Nullable private volatile AsyncClaimWaiters<T> asyncClaimWaiters;
+	/**
+	 * Timeouts of claims that were not bound to a single pool, which are therefore not counted by any pool's statistics.
+	 */
+	private final LongAdder unboundClaimTimeouts = new LongAdder();
+	/**
+	 * Only set if the cluster is configured with a {@link org.bbottema.clusteredobjectpool.core.api.ClaimListener}, so the claim paths skip
+	 * all notification work with a single null check otherwise.
+	 */
+	@Nullable private final ClusterClaimListener<?, PoolKey, T> claimListener;
+	/**
+	 * Maintained by the allocators of this cluster's pools, including pools that are still shutting down.
+	 */
+	@Getter
+	@NotNull private final LiveResourceCounter liveResources;
+	/**
+	 * Shared by the allocators of this cluster's pools to limit how many objects they allocate at the same time, or {@code null} if unlimited.
+	 */
+	@Getter
+	@Nullable private final Semaphore allocationPermits;
+	/**
+	 * One permit per object the pools of this cluster may have allocated at the same time, or {@code null} if there is no cluster-wide cap.
+	 * Claims that may allocate reserve a permit before claiming and hand it to the allocator, see {@link ClaimAllocation}, so they skip or wait
+	 * for pools that would have to allocate beyond the cap instead of blocking in the allocator.
+	 * <p>
+	 * Not fair: permits are only ever taken without waiting, by whichever claim retries first after a release, so claims waiting for the cap are
+	 * not served in the order they started.
+	 */
+	@Getter
+	@Nullable private final Semaphore resourcePermits;
+	/**
+	 * Set while an idle object of another pool is being deallocated to make room under the resource cap for a claim, so concurrent claims don't
+	 * evict more objects than needed. Cleared on any deallocation.
+	 */
+	private final AtomicBoolean makingRoom = new AtomicBoolean();
+	/**
+	 * The pool each thread last claimed from on this cluster, or {@code null} unless {@link ClusterConfig#isThreadAffineClaims()} is set. Held
+	 * weakly, as a pool's allocator references this cluster and so would keep the thread's entry and the pool alive as long as the thread lives,
+	 * even after the pool is removed or the cluster is evicted.
+	 */
+	@Nullable private final ThreadLocal<WeakReference<ResourcePool<PoolKey, T>>> lastClaimedPool;
+	/**
+	 * Periodic tasks on the shared scheduler that only concern this cluster, cancelled when the cluster is evicted.
+	 */
+	private final List<ScheduledFuture<?>> maintenanceTasks = new CopyOnWriteArrayList<>();
+	/**
+	 * Incremented (under the cluster's lock) whenever pools are added, replaced or removed, as activity for {@link #isIdleFor(long)}.
+	 */
+	private volatile long poolChanges;
+	/**
+	 * Only accessed by the thread checking for idleness.
+	 */
+	private long activityAtIdleCheck;
+	private long idleSinceNanos = System.nanoTime();
+	/**
+	 * Set once this cluster is evicted, so claims that find it know to look up its replacement.
+	 */
+	private volatile boolean evicted;
+	/**
+	 * Claims on this cluster that have started but not completed, including queued asynchronous claims, so the cluster is not evicted while
+	 * they still need it. See {@link #tryBeginClaim()}. Only counted if the cluster can be evicted at all.
+	 */
+	private final LongAdder claimsInFlight = new LongAdder();
+	private final boolean evictable;
+
+	ResourcePools(final Collection<ResourcePool<PoolKey, T>> clusterCollection) {
+		this(clusterCollection, null, new LiveResourceCounter(), 0, 0, false, false);
+	}
+
+	/**
+	 * @param liveResourcesOfAllClusters Receives the allocations and deallocations of this cluster as well.
+	 * @param maxConcurrentAllocations   See {@link ClusterConfig#getMaxConcurrentAllocations()}.
+	 * @param maxResources               See {@link ClusterConfig#getMaxResources()}.
+	 * @param threadAffineClaims         See {@link ClusterConfig#isThreadAffineClaims()}.
+	 * @param evictable                  Whether {@link ClusterConfig#getEvictIdleClusterAfter()} is set, so claims need to be counted while in
+	 *                                   flight.
+	 */
+	ResourcePools(final Collection<ResourcePool<PoolKey, T>> clusterCollection,
+				  @Nullable final ClusterClaimListener<?, PoolKey, T> claimListener,
+				  @NotNull final LiveResourceCounter liveResourcesOfAllClusters,
+				  final int maxConcurrentAllocations,
+				  final int maxResources,
+				  final boolean threadAffineClaims,
+				  final boolean evictable) {
+		this.clusterCollection = clusterCollection;
+		this.claimListener = claimListener;
+		this.liveResources = new LiveResourceCounter(liveResourcesOfAllClusters);
+		this.allocationPermits = maxConcurrentAllocations > 0 ? new Semaphore(maxConcurrentAllocations, true) : null;
+		this.resourcePermits = maxResources > 0 ? new Semaphore(maxResources) : null;
+		this.lastClaimedPool = threadAffineClaims ? new ThreadLocal<WeakReference<ResourcePool<PoolKey, T>>>() : null;
+		this.evictable = evictable;
+	}
 	
 	@SuppressWarnings("UnusedReturnValue")
-	Future<Void> shutdownPool(@Nullable PoolKey key) {
-		final List<Future<Void>> poolsShuttingDownFuture = new ArrayList<>();
+	CompletableFuture<Void> shutdownPool(@Nullable PoolKey key) {
+		final List<CompletableFuture<Void>> poolsShuttingDownFuture = new ArrayList<>();
 		final List<ResourcePool<PoolKey, T>> poolsBeingRetired = new ArrayList<>();
-		for (Map.Entry<ResourcePool<PoolKey, T>, Future<Void>> retiringPool : poolsShuttingDown.entrySet()) {
+		for (Map.Entry<ResourcePool<PoolKey, T>, CompletableFuture<Void>> retiringPool : poolsShuttingDown.entrySet()) {
 			if (key == null || retiringPool.getKey().getPoolKey().equals(key)) {
 				poolsShuttingDownFuture.add(retiringPool.getValue());
 			}
 		}
-		for (Iterator<ResourcePool<PoolKey, T>> iterator = clusterCollection.iterator(); iterator.hasNext(); ) {
-			ResourcePool<PoolKey, T> poolInCluster = iterator.next();
-			if (key == null || poolInCluster.getPoolKey().equals(key)) {
-				Future<Void> shutdownFuture = poolInCluster.clearPool();
-				poolsShuttingDownFuture.add(shutdownFuture);
-				poolsShuttingDown.put(poolInCluster, shutdownFuture);
-				poolsBeingRetired.add(poolInCluster);
-				iterator.remove();
+		synchronized (clusterCollection) {
+			for (Iterator<ResourcePool<PoolKey, T>> iterator = clusterCollection.iterator(); iterator.hasNext(); ) {
+				ResourcePool<PoolKey, T> poolInCluster = iterator.next();
+				if (key == null || poolInCluster.getPoolKey().equals(key)) {
+					poolsByKey.remove(poolInCluster.getPoolKey(), poolInCluster);
+					iterator.remove();
+					poolChanges++;
+					poolsShuttingDownFuture.add(retire(poolInCluster));
+					poolsBeingRetired.add(poolInCluster);
+					if (claimListener != null) {
+						claimListener.poolShutDown(poolInCluster.getPoolKey());
+					}
+				}
+			}
+			if (!poolsBeingRetired.isEmpty()) {
+				final List<ResourcePool<PoolKey, T>> remainingPools = new ArrayList<>(poolSnapshot);
+				remainingPools.removeAll(poolsBeingRetired);
+				poolSnapshot = Collections.unmodifiableList(remainingPools);
 			}
 		}
-		return CompositeFuturesAsFutureTask.ofFutures(poolsShuttingDownFuture, new Runnable() {
+		return CompletableFutures.allOf(poolsShuttingDownFuture).whenComplete(new BiConsumer<Void, Throwable>() {
 			@Override
-			public void run() {
+			public void accept(final Void result, final Throwable throwable) {
 				for (ResourcePool<PoolKey, T> retiredPool : poolsBeingRetired) {
 					poolsShuttingDown.remove(retiredPool);
 				}
@@ -57,6 +197,48 @@ class ResourcePools<PoolKey, T> {
 		});
 	}
 
+	/**
+	 * Puts the replacement in the place of the current pool for the same key, in the cycling order as well as for keyed claims, and then shuts
+	 * down the current pool.
+	 *
+	 * @return The current pool's shutdown future.
+	 */
+	CompletableFuture<Void> replacePool(@NotNull final ResourcePool<PoolKey, T> currentPool, @NotNull final ResourcePool<PoolKey, T> replacement) {
+		final CompletableFuture<Void> shutdownFuture;
+		synchronized (clusterCollection) {
+			if (!poolsByKey.replace(currentPool.getPoolKey(), currentPool, replacement)) {
+				throw new IllegalArgumentException("Couldn't find resource pool with key: " + currentPool.getPoolKey());
+			}
+			clusterCollection.remove(currentPool);
+			clusterCollection.add(replacement);
+			final List<ResourcePool<PoolKey, T>> pools = new ArrayList<>(poolSnapshot);
+			pools.set(indexOf(pools, currentPool), replacement);
+			poolSnapshot = Collections.unmodifiableList(pools);
+			poolChanges++;
+			shutdownFuture = retire(currentPool);
+		}
+		return shutdownFuture.whenComplete(new BiConsumer<Void, Throwable>() {
+			@Override
+			public void accept(final Void result, final Throwable throwable) {
+				poolsShuttingDown.remove(currentPool);
+			}
+		});
+	}
+
+	/**
+	 * Shuts down a pool that is no longer part of the cluster, keeping track of it until its shutdown completes. Must hold the cluster's lock.
+	 */
+	@NotNull
+	private CompletableFuture<Void> retire(@NotNull final ResourcePool<PoolKey, T> pool) {
+		final CompletableFuture<Void> shutdownFuture = pool.clearPool();
+		poolsShuttingDown.put(pool, shutdownFuture);
+		final AsyncClaimWaiters<T> waiters = asyncClaimWaiters;
+		if (waiters != null) {
+			waiters.abandonClaimsOn(pool);
+		}
+		return shutdownFuture;
+	}
+
 	int trackedShuttingDownPoolCount() {
 		return poolsShuttingDown.size();
 	}
@@ -65,17 +247,727 @@ class ResourcePools<PoolKey, T> {
 		return findResourcePool(poolKey) != null;
 	}
 	
+	boolean isEmpty() {
+		return poolsByKey.isEmpty();
+	}
+
 	void add(ResourcePool<PoolKey, T> resourcePool) {
-		clusterCollection.add(resourcePool);
+		synchronized (clusterCollection) {
+			poolsByKey.put(resourcePool.getPoolKey(), resourcePool);
+			clusterCollection.add(resourcePool);
+			final List<ResourcePool<PoolKey, T>> pools = new ArrayList<>(poolSnapshot);
+			pools.add(resourcePool);
+			poolSnapshot = Collections.unmodifiableList(pools);
+			poolChanges++;
+		}
+	}
+
+	void addMaintenanceTask(@NotNull final ScheduledFuture<?> maintenanceTask) {
+		maintenanceTasks.add(maintenanceTask);
+	}
+
+	/**
+	 * Counts a claim as in flight until {@link #endClaim()}, unless this cluster was evicted, in which case the claim should go to the cluster
+	 * that replaces it. Together with {@link #tryMarkEvicted()}, guarantees that no claim proceeds on an evicted cluster. Costs nothing if the
+	 * cluster can't be evicted.
+	 *
+	 * @return Whether the claim may proceed on this cluster.
+	 */
+	boolean tryBeginClaim() {
+		if (!evictable) {
+			return true;
+		}
+		claimsInFlight.increment();
+		if (evicted) {
+			claimsInFlight.decrement();
+			return false;
+		}
+		return true;
+	}
+
+	void endClaim() {
+		if (evictable) {
+			claimsInFlight.decrement();
+		}
+	}
+
+	/**
+	 * Like {@link #endClaim()}, once the given asynchronous claim completes.
+	 */
+	@NotNull
+	CompletableFuture<PoolableObject<T>> endClaimOnCompletion(@NotNull final CompletableFuture<PoolableObject<T>> claim) {
+		if (!evictable) {
+			return claim;
+		}
+		claim.whenComplete(new BiConsumer<PoolableObject<T>, Throwable>() {
+			@Override
+			public void accept(final PoolableObject<T> claimed, final Throwable throwable) {
+				endClaim();
+			}
+		});
+		return claim;
+	}
+
+	/**
+	 * Marks this cluster as evicted, unless a claim is in flight, so claims starting from now on look up its replacement instead.
+	 *
+	 * @return Whether the cluster is now marked as evicted.
+	 */
+	boolean tryMarkEvicted() {
+		evicted = true;
+		if (claimsInFlight.sum() > 0) {
+			evicted = false;
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Cancels the maintenance tasks and shuts down all pools, after the cluster was {@link #tryMarkEvicted() marked as evicted} and removed from
+	 * its {@link ResourceClusters}.
+	 */
+	CompletableFuture<Void> evict() {
+		for (ScheduledFuture<?> maintenanceTask : maintenanceTasks) {
+			maintenanceTask.cancel(false);
+		}
+		return shutdownPool(null);
+	}
+
+	/**
+	 * Called periodically by a single thread to find clusters that can be evicted, only for clusters created {@code evictable}.
+	 *
+	 * @return Whether this cluster had no live objects and no outstanding claims, and saw no new claims and no pool changes, for at least the
+	 * given time, as far as observed by the calls to this method.
+	 */
+	boolean isIdleFor(final long idleNanos) {
+		long activity = poolChanges + unboundClaimTimeouts.sum();
+		int outstandingClaims = 0;
+		for (ResourcePool<PoolKey, T> pool : poolsByKey.values()) {
+			activity += pool.getClaimAttempts();
+			outstandingClaims += pool.getOutstandingClaims();
+		}
+		final long now = System.nanoTime();
+		if (liveResources.get() > 0 || outstandingClaims > 0 || claimsInFlight.sum() > 0 || activity != activityAtIdleCheck) {
+			activityAtIdleCheck = activity;
+			idleSinceNanos = now;
+			return false;
+		}
+		return now - idleSinceNanos >= idleNanos;
+	}
+
+	/**
+	 * @return The next pool according to the given strategy, or {@code null} if this cluster has no pools (yet).
+	 */
+	@Nullable
+	ResourcePool<PoolKey, T> cycle(@NotNull LoadBalancingStrategy<ResourcePool<PoolKey, T>, Collection<ResourcePool<PoolKey, T>>> loadBalancingStrategy) {
+		if (loadBalancingStrategy.supportsConcurrentCycling()) {
+			try {
+				return loadBalancingStrategy.cycle(clusterCollection);
+			} catch (NoSuchElementException e) {
+				return null; // empty, or the last pool was shut down concurrently
+			}
+		}
+		synchronized (clusterCollection) {
+			return clusterCollection.isEmpty() ? null : loadBalancingStrategy.cycle(clusterCollection);
+		}
+	}
+
+	/**
+	 * Like {@link #cycle(LoadBalancingStrategy)}, but skips {@link PoolEjection ejected} pools and pools that
+	 * {@link #hasCapacity(ResourcePool) lack capacity} because of adaptive pool sizing or the cluster's resource cap, as long as another
+	 * pool can serve the claim, taking the first such pool in cluster order after the selected one. Otherwise returns the first of these pools
+	 * that is not ejected, or the selected pool if all are.
+	 * <p>
+	 * With thread-affine claims, the pool the current thread last claimed from is returned instead while it has an idle object. The caller tells
+	 * which pool it claimed from in the end, see {@link #claimedFrom(ResourcePool)}.
+	 */
+	@Nullable
+	ResourcePool<PoolKey, T> cycleToPoolWithCapacity(@NotNull LoadBalancingStrategy<ResourcePool<PoolKey, T>, Collection<ResourcePool<PoolKey, T>>> loadBalancingStrategy) {
+		final ResourcePool<PoolKey, T> affinePool = findAffinePool();
+		return affinePool != null ? affinePool : cycleToClaimablePool(loadBalancingStrategy);
+	}
+
+	/**
+	 * With thread-affine claims, remembers the pool a claim on this cluster got its object from for the current thread, unless it already was
+	 * the pool remembered.
+	 */
+	void claimedFrom(@NotNull final ResourcePool<PoolKey, T> pool) {
+		if (lastClaimedPool != null) {
+			final WeakReference<ResourcePool<PoolKey, T>> poolReference = lastClaimedPool.get();
+			if (poolReference == null || poolReference.get() != pool) {
+				lastClaimedPool.set(new WeakReference<>(pool));
+			}
+		}
+	}
+
+	@Nullable
+	private ResourcePool<PoolKey, T> cycleToClaimablePool(@NotNull LoadBalancingStrategy<ResourcePool<PoolKey, T>, Collection<ResourcePool<PoolKey, T>>> loadBalancingStrategy) {
+		final ResourcePool<PoolKey, T> selectedPool = cycle(loadBalancingStrategy);
+		if (selectedPool == null || isClaimable(selectedPool)) {
+			return selectedPool;
+		}
+		ResourcePool<PoolKey, T> fallbackPool = selectedPool.isEjected() ? null : selectedPool;
+		final List<ResourcePool<PoolKey, T>> pools = poolSnapshot;
+		final int selectedIndex = indexOf(pools, selectedPool);
+		for (int offset = 1; offset <= pools.size(); offset++) {
+			final ResourcePool<PoolKey, T> nextPool = pools.get((selectedIndex + offset) % pools.size());
+			if (nextPool == selectedPool) {
+				continue;
+			} else if (isClaimable(nextPool)) {
+				return nextPool;
+			} else if (fallbackPool == null && !nextPool.isEjected()) {
+				fallbackPool = nextPool;
+			}
+		}
+		return fallbackPool != null ? fallbackPool : selectedPool;
+	}
+
+	/**
+	 * @return The pool the current thread last claimed from, as long as it is still part of this cluster, not ejected and has an idle object.
+	 * Forgets the pool once it was removed or replaced, or this cluster was evicted.
+	 */
+	@Nullable
+	private ResourcePool<PoolKey, T> findAffinePool() {
+		final WeakReference<ResourcePool<PoolKey, T>> poolReference = lastClaimedPool != null ? lastClaimedPool.get() : null;
+		if (poolReference == null) {
+			return null;
+		}
+		final ResourcePool<PoolKey, T> pool = poolReference.get();
+		if (pool == null || evicted || poolsByKey.get(pool.getPoolKey()) != pool) {
+			lastClaimedPool.remove();
+			return null;
+		}
+		return !pool.isEjected() && pool.hasIdleObject() && hasCapacity(pool) ? pool : null;
+	}
+
+	private boolean isClaimable(@NotNull final ResourcePool<PoolKey, T> pool) {
+		return !pool.isEjected()
+				&& ((resourcePermits == null && pool.getAdaptiveMaxPoolSize() == null) || hasCapacity(pool));
 	}
 	
+	/**
+	 * Claims from the pool the strategy selects without waiting, failing over to the other pools in strategy order if it has nothing available.
+	 * Only when every pool is saturated does this park, until a resource is returned to any of the pools or the timeout expires.
+	 *
+	 * @param claimStartNanos When the claim started, for reporting its wait time to the claim listener.
+	 * @return The claimed object, or {@code null} if none became available in time or this cluster has no pools.
+	 */
+	@Nullable
+	PoolableObject<T> claimWithFailover(@NotNull LoadBalancingStrategy<ResourcePool<PoolKey, T>, Collection<ResourcePool<PoolKey, T>>> loadBalancingStrategy,
+										@NotNull Timeout claimTimeout,
+										final long claimStartNanos) throws InterruptedException {
+		final long claimTimeoutNanos = MILLISECONDS.toNanos(claimTimeout.getDurationMs());
+		final ClaimAllocation claimAllocation = ClaimAllocation.start(claimStartNanos, claimTimeoutNanos);
+		try {
+			while (true) {
+				final long observedReleaseCount = releaseSignal.releaseCount();
+				final PoolableObject<T> claimed = claimFromAnyPoolWithoutWaiting(loadBalancingStrategy, claimStartNanos);
+				if (claimed != null) {
+					return claimed;
+				}
+				final long remainingNanos = claimTimeoutNanos - (System.nanoTime() - claimStartNanos);
+				if (remainingNanos <= 0) {
+					recordClaimTimeout(null, claimStartNanos);
+					return null;
+				}
+				releaseSignal.awaitReleaseAfter(observedReleaseCount, Math.min(remainingNanos, MAX_FAILOVER_PARK_NANOS));
+			}
+		} finally {
+			claimAllocation.end();
+		}
+	}
+
+	/**
+	 * Tries the pool the strategy selects first and, if that one is saturated, the other pools in cluster order after it, so the strategy is
+	 * cycled once per attempt. Ejected pools are skipped, unless all pools are ejected. With thread-affine claims, the pool the thread last
+	 * claimed from is tried before all of that.
+	 */
+	@Nullable
+	PoolableObject<T> claimFromAnyPoolWithoutWaiting(@NotNull LoadBalancingStrategy<ResourcePool<PoolKey, T>, Collection<ResourcePool<PoolKey, T>>> loadBalancingStrategy,
+													 final long claimStartNanos) throws InterruptedException {
+		return claimFromAnyPoolWithoutWaiting(loadBalancingStrategy, claimStartNanos, true);
+	}
+
+	/**
+	 * Like {@link #claimFromAnyPoolWithoutWaiting(LoadBalancingStrategy, long)}, but only claims idle objects, so it never runs an allocator.
+	 */
+	@Nullable
+	PoolableObject<T> claimIdleFromAnyPool(@NotNull LoadBalancingStrategy<ResourcePool<PoolKey, T>, Collection<ResourcePool<PoolKey, T>>> loadBalancingStrategy,
+										   final long claimStartNanos) throws InterruptedException {
+		return claimFromAnyPoolWithoutWaiting(loadBalancingStrategy, claimStartNanos, false);
+	}
+
+	@Nullable
+	private PoolableObject<T> claimFromAnyPoolWithoutWaiting(@NotNull LoadBalancingStrategy<ResourcePool<PoolKey, T>, Collection<ResourcePool<PoolKey, T>>> loadBalancingStrategy,
+															 final long claimStartNanos,
+															 final boolean allocate) throws InterruptedException {
+		final ResourcePool<PoolKey, T> affinePool = findAffinePool();
+		if (affinePool != null) {
+			final PoolableObject<T> claimedFromAffinePool = claimWithoutWaiting(affinePool, claimStartNanos, allocate);
+			if (claimedFromAffinePool != null) {
+				return claimedFromAffinePool;
+			}
+		}
+		final ResourcePool<PoolKey, T> selectedPool = cycle(loadBalancingStrategy);
+		if (selectedPool == null) {
+			return null;
+		}
+		final PoolableObject<T> claimed = claimUnlessEjected(selectedPool, claimStartNanos, allocate);
+		if (claimed != null) {
+			return claimed;
+		}
+		final List<ResourcePool<PoolKey, T>> pools = poolSnapshot;
+		final int selectedIndex = indexOf(pools, selectedPool);
+		for (int offset = 1; offset <= pools.size(); offset++) {
+			final ResourcePool<PoolKey, T> nextPool = pools.get((selectedIndex + offset) % pools.size());
+			if (nextPool != selectedPool) {
+				final PoolableObject<T> claimedFromNextPool = claimUnlessEjected(nextPool, claimStartNanos, allocate);
+				if (claimedFromNextPool != null) {
+					return claimedFromNextPool;
+				}
+			}
+		}
+		return selectedPool.isEjected() && allPoolsEjected() ? claimWithoutWaiting(selectedPool, claimStartNanos, allocate) : null;
+	}
+
+	/**
+	 * With thread-affine claims, also remembers the pool for the current thread if an object was claimed.
+	 */
+	@Nullable
+	private PoolableObject<T> claimUnlessEjected(@NotNull final ResourcePool<PoolKey, T> pool, final long claimStartNanos, final boolean allocate)
+			throws InterruptedException {
+		final PoolableObject<T> claimed = pool.isEjected() ? null : claimWithoutWaiting(pool, claimStartNanos, allocate);
+		if (claimed != null) {
+			claimedFrom(pool);
+		}
+		return claimed;
+	}
+
+	private boolean allPoolsEjected() {
+		for (ResourcePool<PoolKey, T> pool : poolsByKey.values()) {
+			if (!pool.isEjected()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	void claimStarted(@Nullable final PoolKey poolKey) {
+		if (claimListener != null) {
+			claimListener.claimStarted(poolKey);
+		}
+	}
+
+	/**
+	 * Claims from the given pool of this cluster, waiting at most the given timeout. If the pool is replaced while waiting, the claim continues
+	 * on the replacement for the remaining time.
+	 */
+	@Nullable
+	PoolableObject<T> claim(@NotNull ResourcePool<PoolKey, T> resourcePool, @NotNull Timeout claimTimeout) throws InterruptedException {
+		final long claimStartNanos = System.nanoTime();
+		final long claimTimeoutNanos = MILLISECONDS.toNanos(claimTimeout.getDurationMs());
+		final ClaimAllocation claimAllocation = ClaimAllocation.start(claimStartNanos, claimTimeoutNanos);
+		try {
+			return claim(resourcePool, claimTimeout, claimTimeoutNanos, claimStartNanos);
+		} finally {
+			claimAllocation.end();
+		}
+	}
+
+	/**
+	 * @param claimTimeout      The timeout left for this attempt, which may have started on a pool that was replaced since.
+	 * @param claimTimeoutNanos The claim's full timeout, from its start.
+	 * @param claimStartNanos   When the claim started, so the statistics and claim listener see its full wait time.
+	 */
+	@Nullable
+	private PoolableObject<T> claim(@NotNull ResourcePool<PoolKey, T> resourcePool, @NotNull Timeout claimTimeout, final long claimTimeoutNanos,
+									final long claimStartNanos) throws InterruptedException {
+		final PoolableObject<T> claimed = claimFromPool(resourcePool, claimTimeout, claimTimeoutNanos, claimStartNanos);
+		if (claimed == null) {
+			// the pool may have been replaced while this claim was waiting on it, see replacePool
+			final ResourcePool<PoolKey, T> replacement = poolsByKey.get(resourcePool.getPoolKey());
+			final long remainingNanos = claimTimeoutNanos - (System.nanoTime() - claimStartNanos);
+			if (replacement != null && replacement != resourcePool && remainingNanos > 0) {
+				return claim(replacement, new Timeout(remainingNanos, NANOSECONDS), claimTimeoutNanos, claimStartNanos);
+			}
+		}
+		return claimed;
+	}
+
+	@Nullable
+	private PoolableObject<T> claimFromPool(@NotNull ResourcePool<PoolKey, T> resourcePool, @NotNull Timeout claimTimeout, final long claimTimeoutNanos,
+											final long claimStartNanos) throws InterruptedException {
+		if (resourcePermits != null) {
+			return claimWithinResourceCap(resourcePool, claimTimeoutNanos, claimStartNanos);
+		}
+		final boolean capacityLimited = resourcePool.getAdaptiveMaxPoolSize() != null;
+		if (claimListener == null && !capacityLimited) {
+			return resourcePool.claim(claimTimeout, claimStartNanos);
+		}
+		Timeout remainingTimeout = claimTimeout;
+		if (capacityLimited) {
+			if (!awaitCapacity(resourcePool, claimTimeoutNanos, claimStartNanos)) {
+				recordClaimTimeout(resourcePool, claimStartNanos);
+				return null;
+			}
+			remainingTimeout = new Timeout(Math.max(0, claimTimeoutNanos - (System.nanoTime() - claimStartNanos)), NANOSECONDS);
+		}
+		final PoolableObject<T> claimed = resourcePool.claim(remainingTimeout, claimStartNanos);
+		if (claimListener != null) {
+			claimListener.claimCompleted(resourcePool, claimed, claimStartNanos);
+		}
+		return claimed;
+	}
+
+	/**
+	 * Claims from a pool of this cluster under its resource cap by repeatedly claiming without waiting, which reserves a permit of the cap up
+	 * front, and parking on the cluster's releases in between. While the cap is reached and the pool has nothing idle, an idle object of
+	 * another pool is deallocated to make room, see {@link #makeRoomFor(ResourcePool)}.
+	 */
+	@Nullable
+	private PoolableObject<T> claimWithinResourceCap(@NotNull ResourcePool<PoolKey, T> resourcePool, final long claimTimeoutNanos, final long claimStartNanos)
+			throws InterruptedException {
+		final AdaptiveMaxPoolSize adaptiveMaxPoolSize = resourcePool.getAdaptiveMaxPoolSize();
+		boolean waitingForAdaptiveMaxPoolSize = false;
+		long waitStartNanos = 0;
+		try {
+			while (true) {
+				final long observedReleaseCount = releaseSignal.releaseCount();
+				// only waits caused by the pool's own max pool size in effect should make that grow, not waits for the cluster's resource cap
+				if (adaptiveMaxPoolSize != null && !adaptiveMaxPoolSize.hasCapacity(resourcePool.getClaimedObjects())) {
+					if (!waitingForAdaptiveMaxPoolSize) {
+						waitingForAdaptiveMaxPoolSize = true;
+						waitStartNanos = adaptiveMaxPoolSize.waitStarted();
+					}
+				} else {
+					if (waitingForAdaptiveMaxPoolSize) {
+						waitingForAdaptiveMaxPoolSize = false;
+						adaptiveMaxPoolSize.waitEnded(waitStartNanos);
+					}
+					final PoolableObject<T> claimed = claimWithoutWaiting(resourcePool, claimStartNanos);
+					if (claimed != null) {
+						return claimed;
+					}
+					makeRoomFor(resourcePool);
+				}
+				final long remainingNanos = claimTimeoutNanos - (System.nanoTime() - claimStartNanos);
+				if (remainingNanos <= 0) {
+					recordClaimTimeout(resourcePool, claimStartNanos);
+					return null;
+				}
+				releaseSignal.awaitReleaseAfter(observedReleaseCount, Math.min(remainingNanos, MAX_FAILOVER_PARK_NANOS));
+			}
+		} finally {
+			if (waitingForAdaptiveMaxPoolSize) {
+				adaptiveMaxPoolSize.waitEnded(waitStartNanos);
+			}
+		}
+	}
+
+	/**
+	 * When this cluster's resource cap is reached and the given pool could only serve a claim by allocating, deallocates an idle object of
+	 * another pool, so the permit it frees lets the pool allocate. Only objects beyond the other pool's core size qualify, as that pool would
+	 * otherwise allocate its core object again right away. At most one such deallocation is pending at a time.
+	 */
+	private void makeRoomFor(@NotNull ResourcePool<PoolKey, T> resourcePool) throws InterruptedException {
+		if (resourcePermits == null || resourcePermits.availablePermits() > 0 || allocationRoomOf(resourcePool) == 0) {
+			return;
+		}
+		if (resourcePool.hasIdleObject() || !makingRoom.compareAndSet(false, true)) {
+			return;
+		}
+		for (ResourcePool<PoolKey, T> otherPool : poolsByKey.values()) {
+			final PoolMetrics otherPoolMetrics = otherPool.getPoolMetrics();
+			if (otherPool != resourcePool && otherPoolMetrics.getCurrentlyAllocated() > otherPoolMetrics.getCorePoolSize()) {
+				if (otherPool.deallocateIdle(0)) {
+					return;
+				}
+			}
+		}
+		makingRoom.set(false);
+	}
+
+	/**
+	 * Called by the allocators of this cluster's pools for every deallocated object.
+	 */
+	void resourceDeallocated() {
+		if (resourcePermits != null) {
+			resourcePermits.release();
+			makingRoom.set(false);
+		}
+	}
+
+	/**
+	 * Parks until the given pool {@link #hasCapacity(ResourcePool) has capacity} under its adaptive max pool size, rechecking on
+	 * every release in this cluster.
+	 *
+	 * @return Whether the pool had capacity before the timeout.
+	 */
+	private boolean awaitCapacity(@NotNull ResourcePool<PoolKey, T> resourcePool, final long claimTimeoutNanos, final long claimStartNanos)
+			throws InterruptedException {
+		if (hasCapacity(resourcePool)) {
+			return true;
+		}
+		final AdaptiveMaxPoolSize adaptiveMaxPoolSize = resourcePool.getAdaptiveMaxPoolSize();
+		final boolean waitingForAdaptiveMaxPoolSize = adaptiveMaxPoolSize != null && !adaptiveMaxPoolSize.hasCapacity(resourcePool.getClaimedObjects());
+		final long waitStartNanos = waitingForAdaptiveMaxPoolSize ? adaptiveMaxPoolSize.waitStarted() : 0;
+		try {
+			while (true) {
+				final long observedReleaseCount = releaseSignal.releaseCount();
+				if (hasCapacity(resourcePool)) {
+					return true;
+				}
+				final long remainingNanos = claimTimeoutNanos - (System.nanoTime() - claimStartNanos);
+				if (remainingNanos <= 0) {
+					return false;
+				}
+				// the max pool size in effect may also grow without any release
+				releaseSignal.awaitReleaseAfter(observedReleaseCount, Math.min(remainingNanos, MAX_FAILOVER_PARK_NANOS));
+			}
+		} finally {
+			if (waitingForAdaptiveMaxPoolSize) {
+				adaptiveMaxPoolSize.waitEnded(waitStartNanos);
+			}
+		}
+	}
+
+	/**
+	 * @return Whether a claim on the given pool can be served without exceeding its max pool size in effect or this cluster's resource cap:
+	 * either the pool has an object available, or it may allocate one. Reads the pool's counters without taking its lock.
+	 */
+	private boolean hasCapacity(@NotNull ResourcePool<PoolKey, T> resourcePool) {
+		final AdaptiveMaxPoolSize adaptiveMaxPoolSize = resourcePool.getAdaptiveMaxPoolSize();
+		if (adaptiveMaxPoolSize != null && !adaptiveMaxPoolSize.hasCapacity(resourcePool.getClaimedObjects())) {
+			return false;
+		}
+		return resourcePermits == null
+				|| resourcePool.hasIdleObject()
+				|| resourcePermits.availablePermits() > 0;
+	}
+
+	/**
+	 * @return An available object from the given pool, or {@code null} if it is saturated, which is not reported as a timeout.
+	 */
+	@Nullable
+	PoolableObject<T> claimWithoutWaiting(@NotNull ResourcePool<PoolKey, T> resourcePool, final long claimStartNanos) throws InterruptedException {
+		return claimWithoutWaiting(resourcePool, claimStartNanos, true);
+	}
+
+	/**
+	 * Like {@link #claimWithoutWaiting(ResourcePool, long)}, but only claims an idle object, so it never runs the pool's allocator. If there is
+	 * none, {@link #makeRoomFor(ResourcePool) makes room} for the pool to allocate, for claims bound to this pool that are retried later.
+	 */
+	@Nullable
+	PoolableObject<T> claimIdleWithoutWaiting(@NotNull ResourcePool<PoolKey, T> resourcePool, final long claimStartNanos) throws InterruptedException {
+		final PoolableObject<T> claimed = claimWithoutWaiting(resourcePool, claimStartNanos, false);
+		if (claimed == null) {
+			makeRoomFor(resourcePool);
+		}
+		return claimed;
+	}
+
+	@Nullable
+	private PoolableObject<T> claimWithoutWaiting(@NotNull ResourcePool<PoolKey, T> resourcePool, final long claimStartNanos, final boolean allocate)
+			throws InterruptedException {
+		if (resourcePermits != null || resourcePool.getAdaptiveMaxPoolSize() != null) {
+			if (!hasCapacity(resourcePool)) {
+				final AdaptiveMaxPoolSize adaptiveMaxPoolSize = resourcePool.getAdaptiveMaxPoolSize();
+				if (adaptiveMaxPoolSize != null && !adaptiveMaxPoolSize.hasCapacity(resourcePool.getClaimedObjects())) {
+					adaptiveMaxPoolSize.claimSkipped();
+				}
+				return null;
+			}
+		}
+		final PoolableObject<T> claimed;
+		if (!allocate) {
+			claimed = resourcePool.claimIdleWithoutWaiting(claimStartNanos);
+		} else if (resourcePermits != null) {
+			claimed = claimWithReservedResourcePermit(resourcePool, claimStartNanos);
+		} else {
+			claimed = resourcePool.claimWithoutWaiting(claimStartNanos);
+		}
+		if (claimed != null && claimListener != null) {
+			claimListener.claimCompleted(resourcePool, claimed, claimStartNanos);
+		}
+		return claimed;
+	}
+
+	/**
+	 * Reserves a permit of the resource cap for the allocator in case the pool has to allocate, or only claims an idle object if there is none.
+	 * Gives the permit back if the pool handed out an idle object after all.
+	 */
+	@Nullable
+	private PoolableObject<T> claimWithReservedResourcePermit(@NotNull ResourcePool<PoolKey, T> resourcePool, final long claimStartNanos)
+			throws InterruptedException {
+		final Semaphore resourcePermits = this.resourcePermits;
+		if (resourcePermits == null || !resourcePermits.tryAcquire()) {
+			return resourcePool.claimIdleWithoutWaiting(claimStartNanos);
+		}
+		final ClaimAllocation enclosingClaim = ClaimAllocation.current();
+		final ClaimAllocation claimAllocation = enclosingClaim != null ? enclosingClaim : ClaimAllocation.start(claimStartNanos, 0);
+		claimAllocation.reserveResourcePermit();
+		try {
+			return resourcePool.claimWithoutWaiting(claimStartNanos);
+		} finally {
+			if (claimAllocation.takeReservedResourcePermit()) {
+				resourcePermits.release();
+			}
+			if (enclosingClaim == null) {
+				claimAllocation.end();
+			}
+		}
+	}
+
+	/**
+	 * Claims the first available object matching the predicate, trying the pool the strategy selects first and then the other pools in cluster
+	 * order after it, without waiting and without allocating.
+	 * <p>
+	 * As the claim doesn't wait, not finding any is no timeout. It is not reported at all, so the claim listener only hears of claims that found
+	 * an object, and polling for a match does not keep the cluster from being evicted.
+	 */
+	@Nullable
+	PoolableObject<T> claimMatchingFromAnyPool(@NotNull LoadBalancingStrategy<ResourcePool<PoolKey, T>, Collection<ResourcePool<PoolKey, T>>> loadBalancingStrategy,
+											   @NotNull Predicate<PoolableObject<T>> predicate) throws InterruptedException {
+		final long claimStartNanos = System.nanoTime();
+		final ResourcePool<PoolKey, T> selectedPool = cycle(loadBalancingStrategy);
+		final List<ResourcePool<PoolKey, T>> pools = poolSnapshot;
+		final int selectedIndex = indexOf(pools, selectedPool);
+		for (int offset = 0; offset < pools.size(); offset++) {
+			// starting at the selected pool, or at the first pool if it was removed meanwhile
+			final ResourcePool<PoolKey, T> pool = pools.get((Math.max(selectedIndex, 0) + offset) % pools.size());
+			final PoolableObject<T> claimed = pool.claimMatchingWithoutWaiting(predicate, claimStartNanos);
+			if (claimed != null) {
+				if (claimListener != null) {
+					claimListener.claimStarted(null);
+					claimListener.claimCompleted(pool, claimed, claimStartNanos);
+				}
+				return claimed;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return The position of the given pool in the given snapshot, or {@code -1} if it is not (or no longer) part of it.
+	 */
+	private static <P> int indexOf(@NotNull final List<P> pools, @Nullable final P pool) {
+		for (int i = 0; i < pools.size(); i++) {
+			if (pools.get(i) == pool) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Records a claim that timed out with the pool it waited on, or with this cluster if it was not bound to a pool, and tells the claim listener.
+	 *
+	 * @param targetPool The pool the claim waited on, or {@code null} if it waited on the cluster as a whole.
+	 */
+	private void recordClaimTimeout(@Nullable ResourcePool<PoolKey, T> targetPool, final long claimStartNanos) {
+		if (targetPool != null) {
+			targetPool.recordClaimTimeout(claimStartNanos);
+		} else {
+			unboundClaimTimeouts.increment();
+		}
+		if (claimListener != null) {
+			claimListener.claimCompleted(targetPool, null, claimStartNanos);
+		}
+	}
+
+	/**
+	 * @return How many more objects the given pool, or the pools a claim on this cluster may go to, can allocate right now, within their max
+	 * pool size in effect and this cluster's resource cap.
+	 */
+	int allocationRoom(@Nullable final ResourcePool<PoolKey, T> targetPool) {
+		int room = 0;
+		if (targetPool != null) {
+			room = allocationRoomOf(targetPool);
+		} else {
+			final boolean allPoolsEjected = allPoolsEjected();
+			for (ResourcePool<PoolKey, T> pool : poolsByKey.values()) {
+				if (allPoolsEjected || !pool.isEjected()) {
+					room += allocationRoomOf(pool);
+				}
+			}
+		}
+		return resourcePermits != null ? Math.min(room, resourcePermits.availablePermits()) : room;
+	}
+
+	private static int allocationRoomOf(@NotNull final ResourcePool<?, ?> pool) {
+		final PoolMetrics poolMetrics = pool.getPoolMetrics();
+		final AdaptiveMaxPoolSize adaptiveMaxPoolSize = pool.getAdaptiveMaxPoolSize();
+		final int maxPoolSize = adaptiveMaxPoolSize != null ? adaptiveMaxPoolSize.getMaxPoolSize() : poolMetrics.getMaxPoolSize();
+		return Math.max(0, maxPoolSize - poolMetrics.getCurrentlyAllocated());
+	}
+
+	/**
+	 * Makes the claim attempt right away on the calling thread, allocating if needed but without waiting for a turn to allocate, and only
+	 * queues the claim if nothing is available.
+	 *
+	 * @param targetPool         The pool the claim is bound to, or {@code null} if any pool in this cluster will do.
+	 * @param allocationExecutor Runs the retries of queued claims that need to allocate, see {@link AsyncClaimWaiters}.
+	 */
+	@NotNull
+	CompletableFuture<PoolableObject<T>> claimAsync(@NotNull AsyncClaimWaiters.ClaimAttempt<T> claimAttempt,
+													@Nullable final ResourcePool<PoolKey, T> targetPool,
+													@NotNull Timeout claimTimeout,
+													final long claimStartNanos,
+													@NotNull ScheduledExecutorService scheduler,
+													@NotNull Executor allocationExecutor) {
+		final ClaimAllocation claimAllocation = ClaimAllocation.start(claimStartNanos, 0);
+		try {
+			final PoolableObject<T> claimed = claimAttempt.claim();
+			if (claimed != null) {
+				return CompletableFuture.completedFuture(claimed);
+			}
+		} catch (Exception e) {
+			if (e instanceof InterruptedException) {
+				Thread.currentThread().interrupt();
+			}
+			final CompletableFuture<PoolableObject<T>> failedClaim = new CompletableFuture<>();
+			failedClaim.completeExceptionally(e);
+			return failedClaim;
+		} finally {
+			claimAllocation.end();
+		}
+		return findOrCreateAsyncClaimWaiters(scheduler, allocationExecutor).enqueue(claimAttempt, targetPool, claimStartNanos,
+				MILLISECONDS.toNanos(claimTimeout.getDurationMs()), new Runnable() {
+					@Override
+					public void run() {
+						recordClaimTimeout(targetPool, claimStartNanos);
+					}
+				});
+	}
+
+	@NotNull
+	private AsyncClaimWaiters<T> findOrCreateAsyncClaimWaiters(@NotNull ScheduledExecutorService scheduler, @NotNull Executor allocationExecutor) {
+		AsyncClaimWaiters<T> waiters = asyncClaimWaiters;
+		if (waiters == null) {
+			synchronized (releaseSignal) {
+				waiters = asyncClaimWaiters;
+				if (waiters == null) {
+					final AsyncClaimWaiters<T> newWaiters = new AsyncClaimWaiters<>(scheduler, allocationExecutor);
+					releaseSignal.setReleaseListener(new Runnable() {
+						@Override
+						public void run() {
+							newWaiters.retrySoon();
+						}
+					});
+					waiters = asyncClaimWaiters = newWaiters;
+				}
+			}
+		}
+		return waiters;
+	}
+
 	@Nullable
 	PoolableObject<T> claimResource(PoolKey poolKey, Timeout claimTimeout) throws InterruptedException {
 		ResourcePool<PoolKey, T> resourcePool = findResourcePool(poolKey);
 		if (resourcePool == null) {
 			throw new IllegalArgumentException("Couldn't find resource pool with key: " + poolKey);
 		}
-		return resourcePool.claim(claimTimeout);
+		return claim(resourcePool, claimTimeout);
 	}
 
 	@Nullable
@@ -84,28 +976,84 @@ class ResourcePools<PoolKey, T> {
 		if (resourcePool == null) {
 			throw new IllegalArgumentException("Couldn't find resource pool with key: " + poolKey);
 		}
-		return resourcePool.claimMatching(predicate, claimTimeout);
+		if (claimListener == null) {
+			return resourcePool.claimMatching(predicate, claimTimeout);
+		}
+		final long claimStartNanos = System.nanoTime();
+		final PoolableObject<T> claimed = resourcePool.claimMatching(predicate, claimTimeout);
+		claimListener.claimCompleted(resourcePool, claimed, claimStartNanos);
+		return claimed;
 	}
 	
-	@Nullable
-	private ResourcePool<PoolKey, T> findResourcePool(PoolKey poolKey) {
-		for (ResourcePool<PoolKey, T> resourcePool : clusterCollection) {
-			if (resourcePool.getPoolKey().equals(poolKey)) {
-				return resourcePool;
+	/**
+	 * Applies {@link AdaptivePoolSizing} to each pool in this cluster, called once per adjustment interval. Claims waiting for a pool that grew
+	 * are woken up right away, like on a release.
+	 */
+	void adjustAdaptivePoolSizes(@NotNull AdaptivePoolSizing adaptivePoolSizing) throws InterruptedException {
+		boolean grown = false;
+		for (ResourcePool<PoolKey, T> resourcePool : getPools()) {
+			final AdaptiveMaxPoolSize adaptiveMaxPoolSize = resourcePool.getAdaptiveMaxPoolSize();
+			if (adaptiveMaxPoolSize != null) {
+				grown |= adaptiveMaxPoolSize.adjust(resourcePool, adaptivePoolSizing);
 			}
 		}
-		return null;
+		if (grown) {
+			releaseSignal.signalRelease();
+		}
+	}
+
+	/**
+	 * @return A snapshot of the pools currently in this cluster, excluding those that are shutting down.
+	 */
+	@NotNull
+	List<ResourcePool<PoolKey, T>> getPools() {
+		return poolSnapshot;
+	}
+
+	/**
+	 * @return A future that completes once each of the given pools of this cluster has allocated up to its core size, or was shut down, or
+	 * exceptionally as described in {@link PoolWarmUp}.
+	 */
+	@NotNull
+	CompletableFuture<Void> warmUp(@NotNull Collection<ResourcePool<PoolKey, T>> pools, @NotNull Timeout warmUpTimeout, @NotNull ScheduledExecutorService scheduler) {
+		return new PoolWarmUp<>(this, pools, MILLISECONDS.toNanos(warmUpTimeout.getDurationMs()), scheduler).start();
+	}
+
+	@Nullable
+	ResourcePool<PoolKey, T> findResourcePool(PoolKey poolKey) {
+		return poolsByKey.get(poolKey);
 	}
 	
-	int currentlyAllocated() {
-		int total = 0;
-		for (ResourcePool<PoolKey, T> resourcePool : clusterCollection) {
-			total += resourcePool.getPoolMetrics().getCurrentlyAllocated();
-		}
-		for (ResourcePool<PoolKey, T> resourcePool : poolsShuttingDown.keySet()) {
-			total += resourcePool.getPoolMetrics().getCurrentlyAllocated();
+	@NotNull
+	ResourceClusterMetrics<PoolKey> getMetrics() {
+		final List<ResourcePool<PoolKey, T>> pools = getPools();
+		final Map<PoolKey, ResourcePoolMetrics> poolMetrics = new LinkedHashMap<>();
+		long claims = 0;
+		long releases = 0;
+		long invalidations = 0;
+		long timeouts = unboundClaimTimeouts.sum();
+		long allocations = 0;
+		long deallocations = 0;
+		int inUse = 0;
+		int idle = 0;
+		LatencyHistogram.Snapshot claimWaitHistogram = LatencyHistogram.Snapshot.EMPTY;
+		LatencyHistogram.Snapshot allocationLatencyHistogram = LatencyHistogram.Snapshot.EMPTY;
+		for (ResourcePool<PoolKey, T> pool : pools) {
+			final ResourcePoolMetrics metrics = pool.getMetrics();
+			poolMetrics.put(pool.getPoolKey(), metrics);
+			claims += metrics.getClaims();
+			releases += metrics.getReleases();
+			invalidations += metrics.getInvalidations();
+			timeouts += metrics.getTimeouts();
+			allocations += metrics.getAllocations();
+			deallocations += metrics.getDeallocations();
+			inUse += metrics.getInUse();
+			idle += metrics.getIdle();
+			claimWaitHistogram = claimWaitHistogram.merge(metrics.getClaimWaitHistogram());
+			allocationLatencyHistogram = allocationLatencyHistogram.merge(metrics.getAllocationLatencyHistogram());
 		}
-		return total;
+		return new ResourceClusterMetrics<>(claims, releases, invalidations, timeouts, allocations, deallocations, inUse, idle,
+				claimWaitHistogram, allocationLatencyHistogram, Collections.unmodifiableMap(poolMetrics));
 	}
 	
 }
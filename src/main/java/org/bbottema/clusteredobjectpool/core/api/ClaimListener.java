@@ -0,0 +1,51 @@
+package org.bbottema.clusteredobjectpool.core.api;
+
+import org.bbottema.genericobjectpool.PoolableObject;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Receives the claim lifecycle events of a cluster, for example to feed an external metrics or tracing system. Configure it with
+ * {@link org.bbottema.clusteredobjectpool.core.ClusterConfig#getClaimListener()}; all methods are no-ops by default.
+ * <p>
+ * Events are delivered synchronously on the thread that causes them (the claiming thread, the pool's allocation thread, or the scheduler
+ * thread for asynchronous claims), so implementations must be fast, thread-safe and must not throw.
+ *
+ * @param <ClusterKey> See {@link org.bbottema.clusteredobjectpool.core.ResourceClusters}.
+ * @param <PoolKey>    See {@link org.bbottema.clusteredobjectpool.core.ResourceClusters}.
+ * @param <T>          See {@link org.bbottema.clusteredobjectpool.core.ResourceClusters}.
+ */
+public interface ClaimListener<ClusterKey, PoolKey, T> {
+    /**
+     * @param poolKey The requested pool for claims on a specific pool, or {@code null} for claims on the cluster.
+     */
+    default void claimStarted(@NotNull ClusterKey clusterKey, @Nullable PoolKey poolKey) {
+    }
+
+    /**
+     * @param chosenPoolKey The pool the object was claimed from.
+     * @param waitNanos     How long the claim took, including any waiting.
+     */
+    default void claimSucceeded(@NotNull ClusterKey clusterKey, @NotNull PoolKey chosenPoolKey, @NotNull PoolableObject<T> claimed, long waitNanos) {
+    }
+
+    /**
+     * A claim returned {@code null}, because no (matching) object became available within the claim timeout.
+     *
+     * @param poolKey The pool the claim waited on, or {@code null} if it waited on the cluster as a whole.
+     */
+    default void claimTimedOut(@NotNull ClusterKey clusterKey, @Nullable PoolKey poolKey, long waitNanos) {
+    }
+
+    /**
+     * A pool's allocator created a new object.
+     */
+    default void resourceAllocated(@NotNull ResourceKey<ClusterKey, PoolKey> key, @NotNull T allocated, long allocationNanos) {
+    }
+
+    /**
+     * A pool was shut down and removed from its cluster. Its objects may still be in use or being deallocated.
+     */
+    default void poolShutDown(@NotNull ResourceKey<ClusterKey, PoolKey> key) {
+    }
+}
@@ -0,0 +1,19 @@
+package org.bbottema.clusteredobjectpool.core.api;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Keep-alive or validation action for idle objects, see
+ * {@link org.bbottema.clusteredobjectpool.core.ResourceClusters#sweepIdleResources(org.bbottema.genericobjectpool.util.Timeout, IdleResourceCheck, java.util.concurrent.Executor, int)}.
+ *
+ * @param <T> See {@link org.bbottema.clusteredobjectpool.core.ResourceClusters}.
+ */
+public interface IdleResourceCheck<T> {
+    /**
+     * Runs on the sweep's executor while the object is claimed, so it may block, for example on a network round trip.
+     *
+     * @return Whether the object is still usable, in which case it is released back to its pool. Otherwise, or if this throws, the object is
+     * invalidated.
+     */
+    boolean check(@NotNull T resource) throws Exception;
+}
@@ -0,0 +1,25 @@
+package org.bbottema.clusteredobjectpool.core.api;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.Value;
+
+/**
+ * Outcome of a sweep over the idle objects of all pools, see
+ * {@link org.bbottema.clusteredobjectpool.core.ResourceClusters#sweepIdleResources(org.bbottema.genericobjectpool.util.Timeout, IdleResourceCheck, java.util.concurrent.Executor, int)}.
+ */
+@Value
+@SuppressFBWarnings(justification = "Generated code")
+public class IdleSweepResult {
+    /**
+     * Objects that were claimed and checked.
+     */
+    private final int checked;
+    /**
+     * Checked objects that were invalidated, because the check rejected them or failed.
+     */
+    private final int invalidated;
+    /**
+     * How long the sweep took, from visiting the first pool until the last check finished.
+     */
+    private final long durationNanos;
+}
@@ -0,0 +1,40 @@
+package org.bbottema.clusteredobjectpool.core.api;
+
+/**
+ * Load figures of a resource pool in a cluster, for load balancing strategies that take into account how busy each pool is.
+ * <p>
+ * The pools that {@link org.bbottema.clusteredobjectpool.core.ResourceClusters} hands to a {@link LoadBalancingStrategy} implement this interface.
+ */
+public interface LoadAwarePool {
+    /**
+     * @return The number of objects currently claimed from the pool plus the number of claims currently waiting on it.
+     */
+    int getOutstandingClaims();
+
+    /**
+     * @return The relative capacity of the pool as given on registration, for strategies that spread claims in proportion to weight.
+     * <p>
+     * Defaults to 1.
+     */
+    default int getWeight() {
+        return 1;
+    }
+
+    /**
+     * @return Exponentially weighted moving average of how long claims on this pool took (blocked), with recent claims weighing most.
+     * <p>
+     * Defaults to 0.
+     */
+    default long getClaimLatencyNanos() {
+        return 0;
+    }
+
+    /**
+     * @return Exponentially weighted moving average of how long the pool's allocator took to allocate new objects.
+     * <p>
+     * Defaults to 0.
+     */
+    default long getAllocationLatencyNanos() {
+        return 0;
+    }
+}
@@ -19,4 +19,14 @@ public interface LoadBalancingStrategy<T, C extends Collection<T>> {
      * @return The next item in the given collection, according to this strategy.
      */
     @NotNull T cycle(@NotNull C items);
-}
\ No newline at end of file
+
+    /**
+     * @return Whether {@link #cycle(Collection)} may be invoked concurrently with other cycles and with modifications of the collection, in
+     * which case claims skip the cluster's lock entirely. Only return {@code true} if the collection is thread-safe and cycling doesn't modify it.
+     * <p>
+     * Defaults to {@code false}.
+     */
+    default boolean supportsConcurrentCycling() {
+        return false;
+    }
+}
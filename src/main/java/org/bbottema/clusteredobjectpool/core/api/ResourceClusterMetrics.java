@@ -0,0 +1,35 @@
+package org.bbottema.clusteredobjectpool.core.api;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.Value;
+import org.bbottema.clusteredobjectpool.util.LatencyHistogram;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the figures of a cluster, see {@link org.bbottema.clusteredobjectpool.core.ResourceClusters#getMetrics()}.
+ * <p>
+ * The totals are the sums of the figures of the pools currently in the cluster, except for timeouts, which also include claims that were not
+ * bound to a single pool (failover and asynchronous claims on the cluster).
+ *
+ * @param <PoolKey> See {@link org.bbottema.clusteredobjectpool.core.ResourceClusters}.
+ */
+@Value
+@SuppressFBWarnings(justification = "Generated code")
+public class ResourceClusterMetrics<PoolKey> {
+    private final long claims;
+    private final long releases;
+    private final long invalidations;
+    private final long timeouts;
+    private final long allocations;
+    private final long deallocations;
+    private final int inUse;
+    private final int idle;
+    @NotNull private final LatencyHistogram.Snapshot claimWaitHistogram;
+    @NotNull private final LatencyHistogram.Snapshot allocationLatencyHistogram;
+    /**
+     * Unmodifiable metrics per pool in the cluster.
+     */
+    @NotNull private final Map<PoolKey, ResourcePoolMetrics> pools;
+}
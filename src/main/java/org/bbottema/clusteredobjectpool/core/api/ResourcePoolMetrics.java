@@ -0,0 +1,71 @@
+package org.bbottema.clusteredobjectpool.core.api;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.Value;
+import org.bbottema.clusteredobjectpool.util.LatencyHistogram;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Immutable snapshot of the figures of a single resource pool, see {@link org.bbottema.clusteredobjectpool.core.ResourceClusters#getMetrics()}.
+ * <p>
+ * Counters are totals since the pool was registered. The figures are read one by one without locking, so under load they are not
+ * necessarily consistent with each other.
+ */
+@Value
+@SuppressFBWarnings(justification = "Generated code")
+public class ResourcePoolMetrics {
+    /**
+     * Claims that returned an object.
+     */
+    private final long claims;
+    /**
+     * Claimed objects that were released back to the pool for reuse.
+     */
+    private final long releases;
+    /**
+     * Claimed objects that were deallocated rather than reused when they were returned, because they were invalidated or had expired
+     * meanwhile.
+     */
+    private final long invalidations;
+    /**
+     * Claims that returned {@code null}, because no (matching) object became available within the claim timeout.
+     */
+    private final long timeouts;
+    /**
+     * Objects created by the pool's allocator.
+     */
+    private final long allocations;
+    /**
+     * Objects destroyed by the pool's allocator, for example because they expired.
+     */
+    private final long deallocations;
+    /**
+     * Objects currently claimed.
+     */
+    private final int inUse;
+    /**
+     * Objects currently allocated but not claimed.
+     */
+    private final int idle;
+    /**
+     * The max pool size currently in effect, which changes over time with {@link org.bbottema.clusteredobjectpool.core.AdaptivePoolSizing}.
+     */
+    private final int maxPoolSize;
+    /**
+     * Whether claims on the cluster currently skip this pool, see {@link org.bbottema.clusteredobjectpool.core.PoolEjection}.
+     */
+    private final boolean ejected;
+    /**
+     * Times this pool was ejected. A failed probe keeps the pool ejected and is not counted again. Always zero without
+     * {@link org.bbottema.clusteredobjectpool.core.PoolEjection}.
+     */
+    private final long ejections;
+    /**
+     * How long claims waited for an object, timed out claims included.
+     */
+    @NotNull private final LatencyHistogram.Snapshot claimWaitHistogram;
+    /**
+     * How long the pool's allocator took to create objects.
+     */
+    @NotNull private final LatencyHistogram.Snapshot allocationLatencyHistogram;
+}
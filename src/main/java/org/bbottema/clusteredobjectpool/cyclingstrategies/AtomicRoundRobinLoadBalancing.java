@@ -0,0 +1,31 @@
+package org.bbottema.clusteredobjectpool.cyclingstrategies;
+
+import org.bbottema.clusteredobjectpool.core.api.LoadBalancingStrategy;
+import org.bbottema.clusteredobjectpool.util.CopyOnWriteCyclingCollection;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Evenly cycles through the given items, without locking and without allocating.
+ * <p>
+ * Unlike {@link RoundRobinLoadBalancing}, cycling does not modify the collection: it moves an atomic cursor over an immutable snapshot of the items.
+ */
+@SuppressWarnings("unused")
+public class AtomicRoundRobinLoadBalancing<T> implements LoadBalancingStrategy<T, CopyOnWriteCyclingCollection<T>> {
+
+	@NotNull
+	@Override
+	public CopyOnWriteCyclingCollection<T> createCollectionForCycling() {
+		return new CopyOnWriteCyclingCollection<>();
+	}
+
+	@NotNull
+	@Override
+	public T cycle(@NotNull CopyOnWriteCyclingCollection<T> items) {
+		return items.next();
+	}
+
+	@Override
+	public boolean supportsConcurrentCycling() {
+		return true;
+	}
+}
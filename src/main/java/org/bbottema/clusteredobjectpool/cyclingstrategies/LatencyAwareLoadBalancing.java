@@ -0,0 +1,24 @@
+package org.bbottema.clusteredobjectpool.cyclingstrategies;
+
+import org.bbottema.clusteredobjectpool.core.api.LoadAwarePool;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Power of two choices, comparing pools by latency rather than by outstanding claims alone, so claims are steered away from pools (servers)
+ * that have started to slow down.
+ * <p>
+ * The load of a pool is its recent {@link LoadAwarePool#getClaimLatencyNanos() claim latency} plus
+ * {@link LoadAwarePool#getAllocationLatencyNanos() allocation latency}, multiplied by its outstanding claims plus one: the expected wait
+ * for a new claim. Both latencies are moving averages that follow a slowdown immediately and decay within seconds once it is over, so a
+ * pool that was avoided for being slow gets traffic again when its old latency no longer counts.
+ */
+@SuppressWarnings("unused")
+public class LatencyAwareLoadBalancing<T extends LoadAwarePool> extends PowerOfTwoChoicesLoadBalancing<T> {
+
+	@Override
+	protected long load(@NotNull final T pool) {
+		// the extra nanosecond keeps outstanding claims relevant while there is no latency (yet)
+		final long latencyNanos = pool.getClaimLatencyNanos() + pool.getAllocationLatencyNanos() + 1;
+		return latencyNanos * (pool.getOutstandingClaims() + 1);
+	}
+}
@@ -0,0 +1,112 @@
+package org.bbottema.clusteredobjectpool.cyclingstrategies;
+
+import org.bbottema.clusteredobjectpool.core.api.LoadAwarePool;
+import org.bbottema.clusteredobjectpool.core.api.LoadBalancingStrategy;
+import org.bbottema.clusteredobjectpool.util.CopyOnWriteCyclingCollection;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Cycles through the pools that have the fewest {@link LoadAwarePool#getOutstandingClaims() outstanding claims}, so a slow pool that piles up
+ * claims gets less traffic than its idle siblings.
+ * <p>
+ * To keep claims cheap for large clusters, pools are not inspected on every claim. Instead, the pools are ranked at most once per ranking
+ * interval (by a single thread, while others keep using the previous ranking), and claims are handed out round robin among the least loaded
+ * pools of the latest ranking. The ranking is also refreshed immediately when pools are added or removed.
+ * <p>
+ * Note that all claims within one interval go to the same (tied) least loaded pools. If that causes a herd effect for your load, lower the
+ * ranking interval or use {@link PowerOfTwoChoicesLoadBalancing}.
+ */
+@SuppressWarnings("unused")
+public class LeastOutstandingClaimsLoadBalancing<T extends LoadAwarePool> implements LoadBalancingStrategy<T, LeastOutstandingClaimsLoadBalancing.RankedCollection<T>> {
+
+	private static final long DEFAULT_RANKING_INTERVAL_MS = 10;
+
+	private final long rankingIntervalNanos;
+
+	/**
+	 * Ranks pools at most once per {@value #DEFAULT_RANKING_INTERVAL_MS} milliseconds.
+	 */
+	public LeastOutstandingClaimsLoadBalancing() {
+		this(DEFAULT_RANKING_INTERVAL_MS, MILLISECONDS);
+	}
+
+	public LeastOutstandingClaimsLoadBalancing(final long rankingInterval, @NotNull final TimeUnit timeUnit) {
+		this.rankingIntervalNanos = timeUnit.toNanos(rankingInterval);
+	}
+
+	@NotNull
+	@Override
+	public RankedCollection<T> createCollectionForCycling() {
+		return new RankedCollection<>();
+	}
+
+	@NotNull
+	@Override
+	public T cycle(@NotNull RankedCollection<T> items) {
+		final List<T> snapshot = items.snapshot();
+		if (snapshot.isEmpty()) {
+			throw new NoSuchElementException();
+		}
+		Ranking<T> ranking = items.ranking;
+		if (ranking.rankedSnapshot != snapshot) {
+			ranking = items.rank(snapshot, rankingIntervalNanos);
+		} else {
+			final long now = System.nanoTime();
+			final long nextRankingNanos = items.nextRankingNanos.get();
+			if (now - nextRankingNanos >= 0 && items.nextRankingNanos.compareAndSet(nextRankingNanos, now + rankingIntervalNanos)) {
+				ranking = items.rank(snapshot, rankingIntervalNanos);
+			}
+		}
+		return ranking.leastLoaded.get((items.cursor.getAndIncrement() & Integer.MAX_VALUE) % ranking.leastLoaded.size());
+	}
+
+	@Override
+	public boolean supportsConcurrentCycling() {
+		return true;
+	}
+
+	/**
+	 * Cycling collection that also carries the latest load ranking of its pools.
+	 */
+	public static class RankedCollection<T extends LoadAwarePool> extends CopyOnWriteCyclingCollection<T> {
+		private volatile Ranking<T> ranking = new Ranking<>(null, new ArrayList<T>());
+		private final AtomicLong nextRankingNanos = new AtomicLong(System.nanoTime());
+		private final AtomicInteger cursor = new AtomicInteger();
+
+		private Ranking<T> rank(final List<T> snapshot, final long rankingIntervalNanos) {
+			final List<T> leastLoaded = new ArrayList<>();
+			int leastOutstandingClaims = Integer.MAX_VALUE;
+			for (T pool : snapshot) {
+				final int outstandingClaims = pool.getOutstandingClaims();
+				if (outstandingClaims < leastOutstandingClaims) {
+					leastLoaded.clear();
+					leastOutstandingClaims = outstandingClaims;
+				}
+				if (outstandingClaims == leastOutstandingClaims) {
+					leastLoaded.add(pool);
+				}
+			}
+			nextRankingNanos.set(System.nanoTime() + rankingIntervalNanos);
+			return ranking = new Ranking<>(snapshot, leastLoaded);
+		}
+	}
+
+	private static class Ranking<T> {
+		private final List<T> rankedSnapshot;
+		private final List<T> leastLoaded;
+
+		private Ranking(final List<T> rankedSnapshot, final List<T> leastLoaded) {
+			this.rankedSnapshot = rankedSnapshot;
+			this.leastLoaded = leastLoaded;
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package org.bbottema.clusteredobjectpool.cyclingstrategies;
+
+import org.bbottema.clusteredobjectpool.core.api.LoadAwarePool;
+import org.bbottema.clusteredobjectpool.core.api.LoadBalancingStrategy;
+import org.bbottema.clusteredobjectpool.util.CopyOnWriteCyclingCollection;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Samples two different pools at random and picks the one with the fewest {@link LoadAwarePool#getOutstandingClaims() outstanding claims}.
+ * <p>
+ * This gets most of the benefit of always picking the least loaded pool at a constant cost per claim, regardless of cluster size. Because
+ * every claim compares its own random pair, threads don't all pile onto the same pool the way they would when reading one shared ranking.
+ */
+@SuppressWarnings("unused")
+public class PowerOfTwoChoicesLoadBalancing<T extends LoadAwarePool> implements LoadBalancingStrategy<T, CopyOnWriteCyclingCollection<T>> {
+
+	@NotNull
+	@Override
+	public CopyOnWriteCyclingCollection<T> createCollectionForCycling() {
+		return new CopyOnWriteCyclingCollection<>();
+	}
+
+	@NotNull
+	@Override
+	public T cycle(@NotNull CopyOnWriteCyclingCollection<T> items) {
+		final List<T> snapshot = items.snapshot();
+		final int size = snapshot.size();
+		if (size == 0) {
+			throw new NoSuchElementException();
+		} else if (size == 1) {
+			return snapshot.get(0);
+		}
+		final Random random = ThreadLocalRandom.current();
+		final int first = random.nextInt(size);
+		final int second = (first + 1 + random.nextInt(size - 1)) % size;
+		final T firstPool = snapshot.get(first);
+		final T secondPool = snapshot.get(second);
+		return load(firstPool) <= load(secondPool) ? firstPool : secondPool;
+	}
+
+	/**
+	 * @return The figure by which the two sampled pools are compared, lower being preferred. Defaults to the pool's outstanding claims.
+	 */
+	protected long load(@NotNull final T pool) {
+		return pool.getOutstandingClaims();
+	}
+
+	@Override
+	public boolean supportsConcurrentCycling() {
+		return true;
+	}
+}
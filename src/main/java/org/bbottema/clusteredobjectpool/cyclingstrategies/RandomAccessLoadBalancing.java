@@ -3,7 +3,7 @@ package org.bbottema.clusteredobjectpool.cyclingstrategies;
 import org.bbottema.clusteredobjectpool.core.api.LoadBalancingStrategy;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -16,7 +16,7 @@ public class RandomAccessLoadBalancing<T> implements LoadBalancingStrategy<T, Li
 	@NotNull
 	@Override
 	public List<T> createCollectionForCycling() {
-		return new LinkedList<>();
+		return new ArrayList<>();
 	}
 	
 	@NotNull
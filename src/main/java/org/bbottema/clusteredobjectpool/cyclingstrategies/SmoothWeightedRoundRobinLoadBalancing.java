@@ -0,0 +1,152 @@
+package org.bbottema.clusteredobjectpool.cyclingstrategies;
+
+import org.bbottema.clusteredobjectpool.core.api.LoadAwarePool;
+import org.bbottema.clusteredobjectpool.core.api.LoadBalancingStrategy;
+import org.bbottema.clusteredobjectpool.util.CopyOnWriteCyclingCollection;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Cycles through the pools in proportion to their {@link LoadAwarePool#getWeight() weight}, interleaving them as evenly as possible
+ * (the smooth weighted round robin of nginx). For example weights 5, 1 and 1 for pools A, B and C result in A A B A C A A, rather than
+ * a burst of five claims on A.
+ * <p>
+ * The sequence repeats after as many claims as the weights add up to, once divided by their greatest common divisor. Up to
+ * {@value #MAX_SEQUENCE_LENGTH} claims, it is computed once whenever the pools change, after which claims just move an atomic cursor over it,
+ * like {@link AtomicRoundRobinLoadBalancing}. For longer sequences each claim runs one step of the algorithm instead, which is linear in the
+ * number of pools and independent of the size of the weights. The current weights are then kept in an immutable state that claims replace
+ * with compare-and-set. Either way cycling takes no lock, and starts over whenever the pools change.
+ */
+@SuppressWarnings("unused")
+public class SmoothWeightedRoundRobinLoadBalancing<T extends LoadAwarePool> implements LoadBalancingStrategy<T, SmoothWeightedRoundRobinLoadBalancing.WeightedCollection<T>> {
+
+	private static final int MAX_SEQUENCE_LENGTH = 4096;
+
+	@NotNull
+	@Override
+	public WeightedCollection<T> createCollectionForCycling() {
+		return new WeightedCollection<>();
+	}
+
+	@NotNull
+	@Override
+	public T cycle(@NotNull WeightedCollection<T> items) {
+		final List<T> snapshot = items.snapshot();
+		if (snapshot.isEmpty()) {
+			throw new NoSuchElementException();
+		}
+		final Sequence<T> sequence = findOrComputeSequence(items, snapshot);
+		if (sequence.poolIndexes != null) {
+			return snapshot.get(sequence.poolIndexes[(sequence.cursor.getAndIncrement() & Integer.MAX_VALUE) % sequence.poolIndexes.length]);
+		}
+		while (true) {
+			final CurrentWeights<T> state = items.currentWeights.get();
+			final long[] currentWeights = state.weightedSnapshot == snapshot ? state.currentWeights.clone() : new long[snapshot.size()];
+			long totalWeight = 0;
+			int best = 0;
+			for (int i = 0; i < currentWeights.length; i++) {
+				final int weight = snapshot.get(i).getWeight();
+				currentWeights[i] += weight;
+				totalWeight += weight;
+				if (currentWeights[i] > currentWeights[best]) {
+					best = i;
+				}
+			}
+			currentWeights[best] -= totalWeight;
+			if (items.currentWeights.compareAndSet(state, new CurrentWeights<>(snapshot, currentWeights))) {
+				return snapshot.get(best);
+			}
+		}
+	}
+
+	@NotNull
+	private static <T extends LoadAwarePool> Sequence<T> findOrComputeSequence(@NotNull final WeightedCollection<T> items, @NotNull final List<T> snapshot) {
+		final Sequence<T> sequence = items.sequence.get();
+		if (sequence.weightedSnapshot == snapshot) {
+			return sequence;
+		}
+		final Sequence<T> computedSequence = new Sequence<>(snapshot, computePoolIndexes(snapshot));
+		if (items.sequence.compareAndSet(sequence, computedSequence)) {
+			return computedSequence;
+		}
+		final Sequence<T> concurrentlyComputedSequence = items.sequence.get();
+		return concurrentlyComputedSequence.weightedSnapshot == snapshot ? concurrentlyComputedSequence : computedSequence;
+	}
+
+	/**
+	 * @return The index of the pool for each claim in the repeating sequence, or {@code null} if the sequence is too long to keep.
+	 */
+	@Nullable
+	private static int[] computePoolIndexes(@NotNull final List<? extends LoadAwarePool> snapshot) {
+		int divisor = 0;
+		for (final LoadAwarePool pool : snapshot) {
+			divisor = greatestCommonDivisor(divisor, pool.getWeight());
+		}
+		final long[] weights = new long[snapshot.size()];
+		long totalWeight = 0;
+		for (int i = 0; i < weights.length; i++) {
+			weights[i] = snapshot.get(i).getWeight() / divisor;
+			totalWeight += weights[i];
+		}
+		if (totalWeight > MAX_SEQUENCE_LENGTH) {
+			return null;
+		}
+		final int[] poolIndexes = new int[(int) totalWeight];
+		final long[] currentWeights = new long[weights.length];
+		for (int claim = 0; claim < poolIndexes.length; claim++) {
+			int best = 0;
+			for (int i = 0; i < currentWeights.length; i++) {
+				currentWeights[i] += weights[i];
+				if (currentWeights[i] > currentWeights[best]) {
+					best = i;
+				}
+			}
+			currentWeights[best] -= totalWeight;
+			poolIndexes[claim] = best;
+		}
+		return poolIndexes;
+	}
+
+	private static int greatestCommonDivisor(final int a, final int b) {
+		return b == 0 ? a : greatestCommonDivisor(b, a % b);
+	}
+
+	@Override
+	public boolean supportsConcurrentCycling() {
+		return true;
+	}
+
+	/**
+	 * Cycling collection that also carries the sequence, or the current weights, of the smooth weighted round robin for its current pools.
+	 */
+	public static class WeightedCollection<T extends LoadAwarePool> extends CopyOnWriteCyclingCollection<T> {
+		private final AtomicReference<Sequence<T>> sequence = new AtomicReference<>(new Sequence<T>(null, null));
+		private final AtomicReference<CurrentWeights<T>> currentWeights = new AtomicReference<>(new CurrentWeights<T>(null, new long[0]));
+	}
+
+	private static class Sequence<T> {
+		@Nullable private final List<T> weightedSnapshot;
+		@Nullable private final int[] poolIndexes;
+		private final AtomicInteger cursor = new AtomicInteger();
+
+		private Sequence(@Nullable final List<T> weightedSnapshot, @Nullable final int[] poolIndexes) {
+			this.weightedSnapshot = weightedSnapshot;
+			this.poolIndexes = poolIndexes;
+		}
+	}
+
+	private static class CurrentWeights<T> {
+		@Nullable private final List<T> weightedSnapshot;
+		private final long[] currentWeights;
+
+		private CurrentWeights(@Nullable final List<T> weightedSnapshot, final long[] currentWeights) {
+			this.weightedSnapshot = weightedSnapshot;
+			this.currentWeights = currentWeights;
+		}
+	}
+}
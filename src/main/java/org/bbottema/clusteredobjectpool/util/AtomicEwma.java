@@ -0,0 +1,55 @@
+package org.bbottema.clusteredobjectpool.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.Double.doubleToRawLongBits;
+import static java.lang.Double.longBitsToDouble;
+
+/**
+ * Lock-free and allocation-free exponentially weighted moving average of durations, which decays with time rather than per sample.
+ * <p>
+ * Older samples lose weight according to how long ago they were recorded (with the given decay time as time constant), so the average
+ * reacts equally fast at low and high sample rates. A sample that is higher than the current average replaces it outright (a peak EWMA),
+ * so degradation shows immediately while recovery is smoothed. Without new samples the average decays towards zero, which gives a pool
+ * that stopped receiving traffic because it was slow a chance to prove itself again.
+ * <p>
+ * Concurrent updates may race on the timestamp of the last sample, which at most shifts the weight of a single sample.
+ */
+public class AtomicEwma {
+
+	private final double decayNanos;
+	private final AtomicLong averageBits = new AtomicLong(doubleToRawLongBits(0));
+	private volatile long lastSampleNanos = System.nanoTime();
+
+	public AtomicEwma(final long decayTime, final TimeUnit timeUnit) {
+		this.decayNanos = timeUnit.toNanos(decayTime);
+	}
+
+	public void update(final long sampleNanos) {
+		final long now = System.nanoTime();
+		final double weightOfAverage = weightOfAverage(now);
+		lastSampleNanos = now;
+		while (true) {
+			final long currentBits = averageBits.get();
+			final double current = longBitsToDouble(currentBits);
+			final double updated = sampleNanos > current
+					? sampleNanos
+					: current * weightOfAverage + sampleNanos * (1 - weightOfAverage);
+			if (averageBits.compareAndSet(currentBits, doubleToRawLongBits(updated))) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @return The current average in nanoseconds, decayed for the time since the last sample.
+	 */
+	public long getNanos() {
+		return (long) (longBitsToDouble(averageBits.get()) * weightOfAverage(System.nanoTime()));
+	}
+
+	private double weightOfAverage(final long now) {
+		return Math.exp(-Math.max(0, now - lastSampleNanos) / decayNanos);
+	}
+}
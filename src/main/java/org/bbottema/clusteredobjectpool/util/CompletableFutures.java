@@ -0,0 +1,98 @@
+package org.bbottema.clusteredobjectpool.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Composes shutdown futures without dedicating a thread to waiting for them.
+ * <p>
+ * Futures that are {@link CompletionStage completion stages} are composed directly. Any other future is observed by a single daemon thread
+ * shared by the whole JVM, which polls it every {@value #POLL_INTERVAL_MS} milliseconds, so the number of threads does not grow with the
+ * number of futures. The thread ends once nothing has been polled for {@value #POLLER_KEEP_ALIVE_MS} milliseconds, and is started again
+ * when needed.
+ */
+public final class CompletableFutures {
+
+	private static final long POLL_INTERVAL_MS = 10;
+	private static final long POLLER_KEEP_ALIVE_MS = 1000;
+
+	@Nullable private static volatile ScheduledExecutorService poller;
+
+	private CompletableFutures() {
+	}
+
+	/**
+	 * @return A future that completes when all given futures have completed, exceptionally if any of them did.
+	 */
+	@NotNull
+	public static CompletableFuture<Void> allOf(@NotNull final List<? extends Future<?>> futures) {
+		final CompletableFuture<?>[] completableFutures = new CompletableFuture<?>[futures.size()];
+		for (int i = 0; i < completableFutures.length; i++) {
+			completableFutures[i] = toCompletableFuture(futures.get(i));
+		}
+		return CompletableFuture.allOf(completableFutures);
+	}
+
+	@NotNull
+	@SuppressWarnings("unchecked")
+	public static <V> CompletableFuture<V> toCompletableFuture(@NotNull final Future<V> future) {
+		if (future instanceof CompletionStage) {
+			return ((CompletionStage<V>) future).toCompletableFuture();
+		}
+		final CompletableFuture<V> completableFuture = new CompletableFuture<>();
+		new Runnable() {
+			@Override
+			public void run() {
+				if (!future.isDone()) {
+					getPoller().schedule(this, POLL_INTERVAL_MS, MILLISECONDS);
+					return;
+				}
+				try {
+					completableFuture.complete(future.get());
+				} catch (ExecutionException e) {
+					completableFuture.completeExceptionally(e.getCause());
+				} catch (CancellationException | InterruptedException e) {
+					completableFuture.completeExceptionally(e);
+				}
+			}
+		}.run();
+		return completableFuture;
+	}
+
+	@NotNull
+	private static ScheduledExecutorService getPoller() {
+		final ScheduledExecutorService existingPoller = poller;
+		return existingPoller != null ? existingPoller : createPollerIfAbsent();
+	}
+
+	@NotNull
+	private static synchronized ScheduledExecutorService createPollerIfAbsent() {
+		ScheduledExecutorService existingPoller = poller;
+		if (existingPoller == null) {
+			final ScheduledThreadPoolExecutor newPoller = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+				@Override
+				public Thread newThread(@NotNull final Runnable runnable) {
+					final Thread thread = new Thread(runnable, "clustered-object-pool-future-poller");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			newPoller.setKeepAliveTime(POLLER_KEEP_ALIVE_MS, MILLISECONDS);
+			newPoller.allowCoreThreadTimeOut(true);
+			existingPoller = poller = newPoller;
+		}
+		return existingPoller;
+	}
+}
@@ -1,46 +1,29 @@
 package org.bbottema.clusteredobjectpool.util;
 
 import java.util.List;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
-import java.util.concurrent.FutureTask;
+import java.util.function.BiConsumer;
 
-import static java.util.concurrent.Executors.defaultThreadFactory;
-import static java.util.concurrent.Executors.newSingleThreadExecutor;
-
-public class CompositeFuturesAsFutureTask extends FutureTask<Void> {
+/**
+ * @deprecated Use {@link CompletableFutures#allOf(List)}, which composes the futures without starting a thread to wait for them. Kept for
+ * code compiled against earlier versions, and delegates to it.
+ */
+@Deprecated
+public class CompositeFuturesAsFutureTask {
 
 	public static Future<Void> ofFutures(final List<Future<Void>> futures) {
-		return ofFutures(futures, new Runnable() {
-			@Override
-			public void run() {
-				// no-op
-			}
-		});
+		return CompletableFutures.allOf(futures);
 	}
 
 	public static Future<Void> ofFutures(final List<Future<Void>> futures, final Runnable completion) {
-		ExecutorService executorService = newSingleThreadExecutor(defaultThreadFactory());
-		Future<Void> future = executorService.submit(new CompositeFuturesAsFutureTask(futures, completion), null);
-		executorService.shutdown();
-		return future;
-	}
-
-	private CompositeFuturesAsFutureTask(final List<Future<Void>> futures, final Runnable completion) {
-		super(new Callable<Void>() {
+		return CompletableFutures.allOf(futures).whenComplete(new BiConsumer<Void, Throwable>() {
 			@Override
-			public Void call() throws ExecutionException, InterruptedException {
-				try {
-					for (Future<Void> future : futures) {
-						future.get();
-					}
-					return null;
-				} finally {
-					completion.run();
-				}
+			public void accept(final Void result, final Throwable throwable) {
+				completion.run();
 			}
 		});
 	}
+
+	private CompositeFuturesAsFutureTask() {
+	}
 }
@@ -0,0 +1,101 @@
+package org.bbottema.clusteredobjectpool.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Thread-safe collection backed by an immutable array snapshot, which is replaced (copy-on-write) whenever an item is added or removed.
+ * <p>
+ * Reading, iterating and cycling work on the current snapshot without locking or allocating, which suits a cluster's pools: read on every
+ * claim, but only modified when pools are registered or shut down. Cycling uses a cursor that is shared by all threads, so the items are
+ * handed out round robin across threads as well.
+ */
+public class CopyOnWriteCyclingCollection<T> extends AbstractCollection<T> {
+
+	private volatile List<T> snapshot = emptyList();
+	private final AtomicInteger cursor = new AtomicInteger();
+
+	/**
+	 * @return The current items as an immutable random access list, which is not affected by later modifications.
+	 */
+	@NotNull
+	public List<T> snapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * @return The next item in the current snapshot, round robin.
+	 * @throws NoSuchElementException if the collection is empty.
+	 */
+	@NotNull
+	public T next() {
+		final List<T> items = snapshot;
+		if (items.isEmpty()) {
+			throw new NoSuchElementException();
+		}
+		return items.get((cursor.getAndIncrement() & Integer.MAX_VALUE) % items.size());
+	}
+
+	@Override
+	public synchronized boolean add(T item) {
+		final List<T> items = new ArrayList<>(snapshot);
+		items.add(item);
+		snapshot = unmodifiableList(items);
+		return true;
+	}
+
+	@Override
+	public synchronized boolean remove(Object item) {
+		final List<T> items = new ArrayList<>(snapshot);
+		if (!items.remove(item)) {
+			return false;
+		}
+		snapshot = unmodifiableList(items);
+		return true;
+	}
+
+	/**
+	 * @return An iterator over the current snapshot. Removing through the iterator removes the item from this collection, not from the snapshot.
+	 */
+	@NotNull
+	@Override
+	public Iterator<T> iterator() {
+		final Iterator<T> snapshotIterator = snapshot.iterator();
+		return new Iterator<T>() {
+			private T lastReturned;
+
+			@Override
+			public boolean hasNext() {
+				return snapshotIterator.hasNext();
+			}
+
+			@Override
+			public T next() {
+				return lastReturned = snapshotIterator.next();
+			}
+
+			@Override
+			public void remove() {
+				if (lastReturned == null) {
+					throw new IllegalStateException();
+				}
+				CopyOnWriteCyclingCollection.this.remove(lastReturned);
+				lastReturned = null;
+			}
+		};
+	}
+
+	@Override
+	public int size() {
+		return snapshot.size();
+	}
+}
@@ -0,0 +1,149 @@
+package org.bbottema.clusteredobjectpool.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations with exponentially growing buckets, recorded with striped counters so concurrent recording hardly contends.
+ * <p>
+ * The first bucket holds durations below {@value #FIRST_BUCKET_UPPER_BOUND_NANOS} nanoseconds, after which every bucket is twice as wide as the previous
+ * one. The last bucket holds everything from about 4.5 minutes up. Percentiles are therefore accurate to within a factor of two, which is plenty to
+ * see claims going from microseconds to milliseconds.
+ */
+public class LatencyHistogram {
+
+	private static final int BUCKET_COUNT = 30;
+	private static final long FIRST_BUCKET_UPPER_BOUND_NANOS = 1024;
+	private static final int FIRST_BUCKET_BITS = Long.numberOfTrailingZeros(FIRST_BUCKET_UPPER_BOUND_NANOS);
+
+	private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+
+	public LatencyHistogram() {
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			buckets[i] = new LongAdder();
+		}
+	}
+
+	public void record(final long durationNanos) {
+		buckets[bucketOf(durationNanos)].increment();
+	}
+
+	/**
+	 * @return The counts so far. Buckets are read one by one, so recordings during the snapshot may or may not be included.
+	 */
+	@NotNull
+	public Snapshot snapshot() {
+		final long[] counts = new long[BUCKET_COUNT];
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			counts[i] = buckets[i].sum();
+		}
+		return new Snapshot(counts);
+	}
+
+	private static int bucketOf(final long durationNanos) {
+		final int bits = 64 - Long.numberOfLeadingZeros(Math.max(0, durationNanos));
+		return Math.min(BUCKET_COUNT - 1, Math.max(0, bits - FIRST_BUCKET_BITS));
+	}
+
+	/**
+	 * @return The exclusive upper bound of the given bucket, or {@link Long#MAX_VALUE} for the last bucket.
+	 */
+	private static long upperBoundNanosOf(final int bucket) {
+		return bucket == BUCKET_COUNT - 1 ? Long.MAX_VALUE : FIRST_BUCKET_UPPER_BOUND_NANOS << bucket;
+	}
+
+	/**
+	 * Immutable counts of a {@link LatencyHistogram} at some point in time.
+	 */
+	public static final class Snapshot {
+
+		public static final Snapshot EMPTY = new Snapshot(new long[BUCKET_COUNT]);
+
+		private final long[] counts;
+		private final long count;
+
+		private Snapshot(final long[] counts) {
+			this.counts = counts;
+			long count = 0;
+			for (long bucketCount : counts) {
+				count += bucketCount;
+			}
+			this.count = count;
+		}
+
+		/**
+		 * @return The total number of recorded durations.
+		 */
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * @param percentile Between 0 and 100, for example 99 for the p99.
+		 * @return The upper bound of the bucket that holds the given percentile, or 0 if nothing was recorded.
+		 */
+		public long getPercentileNanos(final double percentile) {
+			if (count == 0) {
+				return 0;
+			}
+			final long rank = Math.max(1, (long) Math.ceil(count * Math.min(100, Math.max(0, percentile)) / 100));
+			long seen = 0;
+			for (int i = 0; i < counts.length; i++) {
+				seen += counts[i];
+				if (seen >= rank) {
+					return upperBoundNanosOf(i);
+				}
+			}
+			return upperBoundNanosOf(counts.length - 1);
+		}
+
+		/**
+		 * @return The exclusive upper bounds of the buckets in nanoseconds, the last one being {@link Long#MAX_VALUE}.
+		 */
+		@NotNull
+		public long[] getBucketUpperBoundsNanos() {
+			final long[] upperBounds = new long[counts.length];
+			for (int i = 0; i < counts.length; i++) {
+				upperBounds[i] = upperBoundNanosOf(i);
+			}
+			return upperBounds;
+		}
+
+		/**
+		 * @return The number of recorded durations per bucket, see {@link #getBucketUpperBoundsNanos()}.
+		 */
+		@NotNull
+		public long[] getBucketCounts() {
+			return counts.clone();
+		}
+
+		/**
+		 * @return A snapshot with the counts of both snapshots combined, for example to aggregate pools into a cluster.
+		 */
+		@NotNull
+		public Snapshot merge(@NotNull final Snapshot other) {
+			final long[] merged = new long[counts.length];
+			for (int i = 0; i < counts.length; i++) {
+				merged[i] = counts[i] + other.counts[i];
+			}
+			return new Snapshot(merged);
+		}
+
+		@Override
+		public boolean equals(final Object o) {
+			return o instanceof Snapshot && Arrays.equals(counts, ((Snapshot) o).counts);
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(counts);
+		}
+
+		@Override
+		public String toString() {
+			return "LatencyHistogram.Snapshot(count=" + count + ", p50=" + getPercentileNanos(50) + "ns, p99=" + getPercentileNanos(99) + "ns)";
+		}
+	}
+}
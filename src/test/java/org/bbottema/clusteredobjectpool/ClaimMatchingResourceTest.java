@@ -72,4 +72,32 @@ class ClaimMatchingResourceTest extends RoundRobinResourceClustersTestBase {
 		assertThat(clusters.isPoolRegistered(key)).isFalse();
 		assertThat(clusters.countLiveResources()).isZero();
 	}
+
+	@Test
+	void claimMatchingResourceFromClusterScansAllPoolsWithoutAllocating() throws InterruptedException {
+		clusters.registerResourcePool(new ResourceClusterAndPoolKey<>(keyCluster1, "server_A"));
+		clusters.registerResourcePool(new ResourceClusterAndPoolKey<>(keyCluster1, "server_B"));
+
+		assertTrue(waitUntilAllocated(8, 250));
+
+		final PoolableObject<String> poolable = clusters.claimMatchingResourceFromCluster(keyCluster1, new Predicate<PoolableObject<String>>() {
+			@Override
+			public boolean test(final PoolableObject<String> poolableObject) {
+				return poolableObject.getAllocatedObject().equals("connection_B3");
+			}
+		});
+		assertThat(requireNonNull(poolable).getAllocatedObject()).isEqualTo("connection_B3");
+
+		final Predicate<PoolableObject<String>> noMatch = new Predicate<PoolableObject<String>>() {
+			@Override
+			public boolean test(final PoolableObject<String> poolableObject) {
+				return false;
+			}
+		};
+		assertThat(clusters.claimMatchingResourceFromCluster(keyCluster1, noMatch)).isNull();
+		assertThat(clusters.claimMatchingResourceFromCluster(UUID.randomUUID(), noMatch)).isNull();
+		assertThat(clusters.countLiveResources()).isEqualTo(8);
+
+		poolable.release();
+	}
 }
@@ -0,0 +1,85 @@
+package org.bbottema.clusteredobjectpool;
+
+import org.bbottema.clusteredobjectpool.core.AdaptivePoolSizing;
+import org.bbottema.clusteredobjectpool.core.ClusterConfig;
+import org.bbottema.clusteredobjectpool.core.ResourceClusters;
+import org.bbottema.clusteredobjectpool.core.api.ResourceKey.ResourceClusterAndPoolKey;
+import org.bbottema.genericobjectpool.PoolableObject;
+import org.bbottema.genericobjectpool.expirypolicies.TimeoutSinceCreationExpirationPolicy;
+import org.bbottema.genericobjectpool.util.Timeout;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResourceClustersAdaptivePoolSizingTest {
+
+	private final UUID keyCluster = UUID.randomUUID();
+	private final ResourceClusterAndPoolKey<UUID, String> keyPool = new ResourceClusterAndPoolKey<>(keyCluster, "server_A");
+
+	private ResourceClusters<UUID, String, String> clusters;
+	private ExecutorService executorService;
+
+	@BeforeEach
+	void setup() {
+		clusters = new ResourceClusters<>(ClusterConfig.<UUID, String, String>builder()
+				.allocatorFactory(new RoundRobinResourceClustersTestBase.DummyAllocatorFactory())
+				.defaultExpirationPolicy(new TimeoutSinceCreationExpirationPolicy<>(10, SECONDS))
+				.defaultMaxPoolSize(1)
+				.claimTimeout(new Timeout(5, SECONDS))
+				.adaptivePoolSizing(AdaptivePoolSizing.builder()
+						.maxPoolSizeCeiling(3)
+						.growAfterWaiting(new Timeout(1, MILLISECONDS))
+						.shrinkAfterIdle(new Timeout(50, MILLISECONDS))
+						.adjustmentInterval(new Timeout(20, MILLISECONDS))
+						.build())
+				.build());
+		clusters.registerResourcePool(keyPool);
+		executorService = Executors.newSingleThreadExecutor();
+	}
+
+	@AfterEach
+	void tearDown() {
+		executorService.shutdownNow();
+		clusters.shutDown();
+	}
+
+	@Test
+	void maxPoolSizeGrowsWhileClaimsWaitAndShrinksWhenObjectsStayIdle() throws Exception {
+		final PoolableObject<String> firstObject = requireNonNull(clusters.claimResourceFromPool(keyPool));
+		assertThat(maxPoolSize()).isOne();
+
+		final Future<PoolableObject<String>> waitingClaim = executorService.submit(new Callable<PoolableObject<String>>() {
+			@Override
+			public PoolableObject<String> call() throws InterruptedException {
+				return clusters.claimResourceFromPool(keyPool);
+			}
+		});
+		final PoolableObject<String> secondObject = requireNonNull(waitingClaim.get(1, SECONDS));
+		assertThat(maxPoolSize()).isEqualTo(2);
+		assertThat(clusters.countLiveResources()).isEqualTo(2);
+
+		firstObject.release();
+		secondObject.release();
+		final long deadline = System.currentTimeMillis() + 2000;
+		while ((maxPoolSize() > 1 || clusters.countLiveResources() > 1) && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(maxPoolSize()).isOne();
+		assertThat(clusters.countLiveResources()).isOne();
+	}
+
+	private int maxPoolSize() {
+		return clusters.getMetrics().get(keyCluster).getPools().get("server_A").getMaxPoolSize();
+	}
+}
@@ -0,0 +1,133 @@
+package org.bbottema.clusteredobjectpool;
+
+import org.bbottema.clusteredobjectpool.core.ClusterConfig;
+import org.bbottema.clusteredobjectpool.core.ResourceClusters;
+import org.bbottema.clusteredobjectpool.core.api.AllocatorFactory;
+import org.bbottema.clusteredobjectpool.core.api.ResourceKey;
+import org.bbottema.clusteredobjectpool.core.api.ResourceKey.ResourceClusterAndPoolKey;
+import org.bbottema.genericobjectpool.Allocator;
+import org.bbottema.genericobjectpool.PoolableObject;
+import org.bbottema.genericobjectpool.expirypolicies.TimeoutSinceCreationExpirationPolicy;
+import org.bbottema.genericobjectpool.util.Timeout;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResourceClustersAsyncClaimTest {
+
+	private final UUID keyCluster = UUID.randomUUID();
+	private final ResourceClusterAndPoolKey<UUID, String> keyPoolA = new ResourceClusterAndPoolKey<>(keyCluster, "server_A");
+	private final ResourceClusterAndPoolKey<UUID, String> keyPoolB = new ResourceClusterAndPoolKey<>(keyCluster, "server_B");
+
+	private ResourceClusters<UUID, String, String> clusters;
+
+	@AfterEach
+	void tearDown() {
+		clusters.shutDown();
+	}
+
+	@Test
+	void availableObjectCompletesClaimImmediately() {
+		clusters = createClusters(new Timeout(5, SECONDS), false);
+
+		final CompletableFuture<PoolableObject<String>> claim = clusters.claimResourceFromPoolAsync(keyPoolA);
+
+		assertThat(claim).isCompleted();
+		requireNonNull(claim.join()).release();
+	}
+
+	@Test
+	void queuedClaimCompletesOnRelease() throws Exception {
+		clusters = createClusters(new Timeout(5, SECONDS), false);
+		final PoolableObject<String> objectFromA = requireNonNull(clusters.claimResourceFromPool(keyPoolA));
+
+		final CompletableFuture<PoolableObject<String>> firstQueuedClaim = clusters.claimResourceFromPoolAsync(keyPoolA);
+		// round robin selects A first, without failover the claim waits for A even though B is available
+		final CompletableFuture<PoolableObject<String>> secondQueuedClaim = clusters.claimResourceFromClusterAsync(keyCluster);
+		assertThat(firstQueuedClaim).isNotDone();
+		assertThat(secondQueuedClaim).isNotDone();
+
+		objectFromA.release();
+		final PoolableObject<String> reclaimedObject = requireNonNull(firstQueuedClaim.get(1, SECONDS));
+		assertThat(reclaimedObject.getAllocatedObject()).isEqualTo("connection_A1");
+		assertThat(secondQueuedClaim).isNotDone();
+
+		reclaimedObject.release();
+		requireNonNull(secondQueuedClaim.get(1, SECONDS)).release();
+	}
+
+	@Test
+	void queuedClusterClaimWithFailoverCompletesOnReleaseInAnyPool() throws Exception {
+		clusters = createClusters(new Timeout(5, SECONDS), true);
+		final PoolableObject<String> objectFromA = requireNonNull(clusters.claimResourceFromPool(keyPoolA));
+		final PoolableObject<String> objectFromB = requireNonNull(clusters.claimResourceFromPool(keyPoolB));
+
+		final CompletableFuture<PoolableObject<String>> queuedClaim = clusters.claimResourceFromClusterAsync(keyCluster);
+		assertThat(queuedClaim).isNotDone();
+
+		objectFromB.release();
+		assertThat(requireNonNull(queuedClaim.get(1, SECONDS)).getAllocatedObject()).isEqualTo("connection_B1");
+		objectFromA.release();
+	}
+
+	@Test
+	void queuedClaimCompletesWithNullOnTimeout() throws Exception {
+		clusters = createClusters(new Timeout(50, MILLISECONDS), false);
+		final PoolableObject<String> objectFromA = requireNonNull(clusters.claimResourceFromPool(keyPoolA));
+
+		assertThat(clusters.claimResourceFromPoolAsync(keyPoolA).get(1, SECONDS)).isNull();
+		objectFromA.release();
+	}
+
+	@Test
+	void queuedClaimAllocatesOffTheScheduler() throws Exception {
+		clusters = new ResourceClusters<>(ClusterConfig.<UUID, String, String>builder()
+				.allocatorFactory(new AllocatorFactory<UUID, String, String>() {
+					@NotNull
+					@Override
+					public Allocator<String> create(@NotNull final ResourceKey<UUID, String> resourceKey) {
+						return new Allocator<String>() {
+							@NotNull
+							@Override
+							public String allocate() {
+								return Thread.currentThread().getName();
+							}
+						};
+					}
+				})
+				.defaultExpirationPolicy(new TimeoutSinceCreationExpirationPolicy<>(10, SECONDS))
+				.defaultMaxPoolSize(1)
+				.claimTimeout(new Timeout(5, SECONDS))
+				.build());
+		final PoolableObject<String> objectFromA = requireNonNull(clusters.claimResourceFromPool(keyPoolA));
+		final CompletableFuture<PoolableObject<String>> queuedClaim = clusters.claimResourceFromPoolAsync(keyPoolA);
+		assertThat(queuedClaim).isNotDone();
+
+		// frees room in the pool without returning an object, so the queued claim has to allocate
+		objectFromA.invalidate();
+		final PoolableObject<String> allocatedObject = requireNonNull(queuedClaim.get(1, SECONDS));
+		assertThat(allocatedObject.getAllocatedObject()).isEqualTo("clustered-object-pool-allocations");
+		allocatedObject.release();
+	}
+
+	private ResourceClusters<UUID, String, String> createClusters(final Timeout claimTimeout, final boolean failoverClaims) {
+		final ResourceClusters<UUID, String, String> clusters = new ResourceClusters<>(ClusterConfig.<UUID, String, String>builder()
+				.allocatorFactory(new RoundRobinResourceClustersTestBase.DummyAllocatorFactory())
+				.defaultExpirationPolicy(new TimeoutSinceCreationExpirationPolicy<>(10, SECONDS))
+				.defaultMaxPoolSize(1)
+				.claimTimeout(claimTimeout)
+				.failoverClaims(failoverClaims)
+				.build());
+		clusters.registerResourcePool(keyPoolA);
+		clusters.registerResourcePool(keyPoolB);
+		return clusters;
+	}
+}
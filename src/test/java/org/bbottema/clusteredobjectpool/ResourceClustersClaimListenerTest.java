@@ -0,0 +1,86 @@
+package org.bbottema.clusteredobjectpool;
+
+import org.bbottema.clusteredobjectpool.core.ClusterConfig;
+import org.bbottema.clusteredobjectpool.core.ResourceClusters;
+import org.bbottema.clusteredobjectpool.core.api.ClaimListener;
+import org.bbottema.clusteredobjectpool.core.api.ResourceKey;
+import org.bbottema.clusteredobjectpool.core.api.ResourceKey.ResourceClusterAndPoolKey;
+import org.bbottema.genericobjectpool.PoolableObject;
+import org.bbottema.genericobjectpool.expirypolicies.TimeoutSinceCreationExpirationPolicy;
+import org.bbottema.genericobjectpool.util.Timeout;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResourceClustersClaimListenerTest {
+
+	@Test
+	void listenerReceivesClaimLifecycleEvents() throws Exception {
+		final RecordingClaimListener listener = new RecordingClaimListener();
+		final ResourceClusters<UUID, String, String> clusters = new ResourceClusters<>(ClusterConfig.<UUID, String, String>builder()
+				.allocatorFactory(new RoundRobinResourceClustersTestBase.DummyAllocatorFactory())
+				.defaultExpirationPolicy(new TimeoutSinceCreationExpirationPolicy<>(10, SECONDS))
+				.defaultMaxPoolSize(1)
+				.claimTimeout(new Timeout(50, MILLISECONDS))
+				.claimListener(listener)
+				.build());
+		final UUID keyCluster = UUID.randomUUID();
+		final ResourceClusterAndPoolKey<UUID, String> keyPoolA = new ResourceClusterAndPoolKey<>(keyCluster, "server_A");
+		clusters.registerResourcePool(keyPoolA);
+
+		final PoolableObject<String> claimed = requireNonNull(clusters.claimResourceFromPool(keyPoolA));
+		// allocation may be reported from the pool's allocation thread, so only the claim events are ordered
+		assertThat(listener.events).containsExactlyInAnyOrder("started " + keyCluster + "/server_A", "allocated " + keyCluster + "/server_A", "succeeded " + keyCluster + "/server_A");
+		listener.events.clear();
+
+		assertThat(clusters.claimResourceFromCluster(keyCluster)).isNull();
+		assertThat(listener.events).containsExactly("started " + keyCluster + "/null", "timedOut " + keyCluster + "/server_A");
+		assertThat(listener.lastWaitNanos).isGreaterThanOrEqualTo(MILLISECONDS.toNanos(50));
+		listener.events.clear();
+
+		claimed.release();
+		clusters.shutdownPool("server_A").get();
+		assertThat(listener.events).containsExactly("shutDown " + keyCluster + "/server_A");
+	}
+
+	private static class RecordingClaimListener implements ClaimListener<UUID, String, String> {
+		private final Queue<String> events = new ConcurrentLinkedQueue<>();
+		private volatile long lastWaitNanos;
+
+		@Override
+		public void claimStarted(@NotNull final UUID clusterKey, @Nullable final String poolKey) {
+			events.add("started " + clusterKey + "/" + poolKey);
+		}
+
+		@Override
+		public void claimSucceeded(@NotNull final UUID clusterKey, @NotNull final String chosenPoolKey, @NotNull final PoolableObject<String> claimed, final long waitNanos) {
+			events.add("succeeded " + clusterKey + "/" + chosenPoolKey);
+			lastWaitNanos = waitNanos;
+		}
+
+		@Override
+		public void claimTimedOut(@NotNull final UUID clusterKey, @Nullable final String poolKey, final long waitNanos) {
+			events.add("timedOut " + clusterKey + "/" + poolKey);
+			lastWaitNanos = waitNanos;
+		}
+
+		@Override
+		public void resourceAllocated(@NotNull final ResourceKey<UUID, String> key, @NotNull final String allocated, final long allocationNanos) {
+			events.add("allocated " + key.getClusterKey() + "/" + key.getPoolKey());
+		}
+
+		@Override
+		public void poolShutDown(@NotNull final ResourceKey<UUID, String> key) {
+			events.add("shutDown " + key.getClusterKey() + "/" + key.getPoolKey());
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package org.bbottema.clusteredobjectpool;
+
+import org.bbottema.clusteredobjectpool.core.ClusterConfig;
+import org.bbottema.clusteredobjectpool.core.ResourceClusters;
+import org.bbottema.clusteredobjectpool.core.api.AllocatorFactory;
+import org.bbottema.clusteredobjectpool.core.api.ResourceKey;
+import org.bbottema.clusteredobjectpool.core.api.ResourceKey.ResourceClusterAndPoolKey;
+import org.bbottema.genericobjectpool.Allocator;
+import org.bbottema.genericobjectpool.PoolableObject;
+import org.bbottema.genericobjectpool.expirypolicies.TimeoutSinceCreationExpirationPolicy;
+import org.bbottema.genericobjectpool.util.Timeout;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResourceClustersConcurrencyTest {
+
+	private static final int THREADS = 8;
+
+	@Test
+	void concurrentOnTheFlyClaimsForTheSameNewPoolRegisterItOnlyOnce() throws Exception {
+		final ResourceClusters<UUID, String, String> clusters = new ResourceClusters<>(ClusterConfig.<UUID, String, String>builder()
+				.allocatorFactory(new RoundRobinResourceClustersTestBase.DummyAllocatorFactory())
+				.defaultExpirationPolicy(new TimeoutSinceCreationExpirationPolicy<>(10, SECONDS))
+				.defaultMaxPoolSize(THREADS)
+				.claimTimeout(new Timeout(5, SECONDS))
+				.build());
+		final ResourceClusterAndPoolKey<UUID, String> key = new ResourceClusterAndPoolKey<>(UUID.randomUUID(), "server_A");
+		final CountDownLatch startGate = new CountDownLatch(1);
+		final ExecutorService executorService = Executors.newFixedThreadPool(THREADS);
+
+		try {
+			final List<Future<PoolableObject<String>>> claims = new ArrayList<>();
+			for (int i = 0; i < THREADS; i++) {
+				claims.add(executorService.submit(new Callable<PoolableObject<String>>() {
+					@Override
+					public PoolableObject<String> call() throws InterruptedException {
+						startGate.await();
+						return clusters.claimResourceFromPool(key);
+					}
+				}));
+			}
+			startGate.countDown();
+
+			for (Future<PoolableObject<String>> claim : claims) {
+				requireNonNull(claim.get(5, SECONDS)).release();
+			}
+			assertThat(clusters.isPoolRegistered(key)).isTrue();
+			assertThat(clusters.claimResourceFromCluster(key.getClusterKey())).isNotNull();
+		} finally {
+			executorService.shutdownNow();
+			clusters.shutDown();
+		}
+	}
+
+	@Test
+	void registrationInOneClusterDoesNotHoldUpRegistrationInAnother() throws Exception {
+		final CountDownLatch allocatorFactoryEntered = new CountDownLatch(1);
+		final CountDownLatch allocatorFactoryReleased = new CountDownLatch(1);
+		final ResourceClusters<Integer, String, String> clusters = new ResourceClusters<>(ClusterConfig.<Integer, String, String>builder()
+				.allocatorFactory(new AllocatorFactory<Integer, String, String>() {
+					@NotNull
+					@Override
+					public Allocator<String> create(@NotNull final ResourceKey<Integer, String> resourceKey) {
+						if (resourceKey.getClusterKey() == 1) {
+							allocatorFactoryEntered.countDown();
+							try {
+								allocatorFactoryReleased.await();
+							} catch (InterruptedException e) {
+								Thread.currentThread().interrupt();
+							}
+						}
+						return new RoundRobinResourceClustersTestBase.DummyAllocatorFactory().create(new ResourceClusterAndPoolKey<>(UUID.randomUUID(), resourceKey.getPoolKey()));
+					}
+				})
+				.defaultExpirationPolicy(new TimeoutSinceCreationExpirationPolicy<>(10, SECONDS))
+				.defaultMaxPoolSize(1)
+				.claimTimeout(new Timeout(5, SECONDS))
+				.build());
+		final ExecutorService executorService = Executors.newFixedThreadPool(2);
+
+		try {
+			// clusters 1 and 2 hash to different registration lock stripes
+			final Future<?> slowRegistration = executorService.submit(new Runnable() {
+				@Override
+				public void run() {
+					clusters.registerResourcePool(new ResourceClusterAndPoolKey<>(1, "server_A"));
+				}
+			});
+			assertThat(allocatorFactoryEntered.await(5, SECONDS)).isTrue();
+
+			final Future<PoolableObject<String>> onTheFlyClaim = executorService.submit(new Callable<PoolableObject<String>>() {
+				@Override
+				public PoolableObject<String> call() throws InterruptedException {
+					return clusters.claimResourceFromPool(new ResourceClusterAndPoolKey<>(2, "server_B"));
+				}
+			});
+			assertThat(requireNonNull(onTheFlyClaim.get(5, SECONDS)).getAllocatedObject()).isEqualTo("connection_B1");
+			assertThat(clusters.isPoolRegistered(new ResourceClusterAndPoolKey<>(1, "server_A"))).isFalse();
+
+			allocatorFactoryReleased.countDown();
+			slowRegistration.get(5, SECONDS);
+			assertThat(clusters.isPoolRegistered(new ResourceClusterAndPoolKey<>(1, "server_A"))).isTrue();
+		} finally {
+			allocatorFactoryReleased.countDown();
+			executorService.shutdownNow();
+			clusters.shutDown();
+		}
+	}
+}
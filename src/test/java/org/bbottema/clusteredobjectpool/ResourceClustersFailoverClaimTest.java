@@ -0,0 +1,105 @@
+package org.bbottema.clusteredobjectpool;
+
+import org.bbottema.clusteredobjectpool.core.ClusterConfig;
+import org.bbottema.clusteredobjectpool.core.ResourceClusters;
+import org.bbottema.clusteredobjectpool.core.api.ResourceKey.ResourceClusterAndPoolKey;
+import org.bbottema.clusteredobjectpool.cyclingstrategies.RoundRobinLoadBalancing;
+import org.bbottema.genericobjectpool.PoolableObject;
+import org.bbottema.genericobjectpool.expirypolicies.TimeoutSinceCreationExpirationPolicy;
+import org.bbottema.genericobjectpool.util.Timeout;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResourceClustersFailoverClaimTest {
+
+	private final UUID keyCluster = UUID.randomUUID();
+	private final ResourceClusterAndPoolKey<UUID, String> keyPoolA = new ResourceClusterAndPoolKey<>(keyCluster, "server_A");
+	private final ResourceClusterAndPoolKey<UUID, String> keyPoolB = new ResourceClusterAndPoolKey<>(keyCluster, "server_B");
+
+	private ResourceClusters<UUID, String, String> clusters;
+	private ExecutorService executorService;
+
+	@BeforeEach
+	void setup() {
+		clusters = new ResourceClusters<>(ClusterConfig.<UUID, String, String>builder()
+				.allocatorFactory(new RoundRobinResourceClustersTestBase.DummyAllocatorFactory())
+				.defaultExpirationPolicy(new TimeoutSinceCreationExpirationPolicy<>(10, SECONDS))
+				.defaultMaxPoolSize(1)
+				.claimTimeout(new Timeout(5, SECONDS))
+				.loadBalancingStrategy(new RoundRobinLoadBalancing())
+				.failoverClaims(true)
+				.build());
+		clusters.registerResourcePool(keyPoolA);
+		clusters.registerResourcePool(keyPoolB);
+		executorService = Executors.newSingleThreadExecutor();
+	}
+
+	@AfterEach
+	void tearDown() {
+		executorService.shutdownNow();
+		clusters.shutDown();
+	}
+
+	@Test
+	void claimFailsOverToOtherPoolWhenSelectedPoolIsExhausted() throws Exception {
+		final PoolableObject<String> objectFromA = requireNonNull(clusters.claimResourceFromPool(keyPoolA));
+
+		// round robin selects A first, which is exhausted
+		final PoolableObject<String> objectFromB = requireNonNull(clusters.claimResourceFromCluster(keyCluster));
+		assertThat(objectFromB.getAllocatedObject()).isEqualTo("connection_B1");
+
+		objectFromA.release();
+		objectFromB.release();
+	}
+
+	@Test
+	void claimOnSaturatedClusterWaitsForWhicheverPoolFreesUpFirst() throws Exception {
+		final PoolableObject<String> objectFromA = requireNonNull(clusters.claimResourceFromPool(keyPoolA));
+		final PoolableObject<String> objectFromB = requireNonNull(clusters.claimResourceFromPool(keyPoolB));
+
+		final Future<PoolableObject<String>> claim = executorService.submit(new Callable<PoolableObject<String>>() {
+			@Override
+			public PoolableObject<String> call() throws InterruptedException {
+				return clusters.claimResourceFromCluster(keyCluster);
+			}
+		});
+		objectFromB.release();
+
+		assertThat(requireNonNull(claim.get(1, SECONDS)).getAllocatedObject()).isEqualTo("connection_B1");
+		objectFromA.release();
+	}
+
+	@Test
+	void claimOnSaturatedClusterTimesOut() throws Exception {
+		final ResourceClusters<UUID, String, String> impatientClusters = new ResourceClusters<>(ClusterConfig.<UUID, String, String>builder()
+				.allocatorFactory(new RoundRobinResourceClustersTestBase.DummyAllocatorFactory())
+				.defaultExpirationPolicy(new TimeoutSinceCreationExpirationPolicy<>(10, SECONDS))
+				.defaultMaxPoolSize(1)
+				.claimTimeout(new Timeout(50, MILLISECONDS))
+				.failoverClaims(true)
+				.build());
+		try {
+			final PoolableObject<String> objectFromA = requireNonNull(impatientClusters.claimResourceFromPool(keyPoolA));
+			final PoolableObject<String> objectFromB = requireNonNull(impatientClusters.claimResourceFromPool(keyPoolB));
+
+			assertThat(impatientClusters.claimResourceFromCluster(keyCluster)).isNull();
+
+			objectFromA.release();
+			objectFromB.release();
+		} finally {
+			impatientClusters.shutDown();
+		}
+	}
+}
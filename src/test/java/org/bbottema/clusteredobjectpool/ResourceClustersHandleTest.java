@@ -0,0 +1,58 @@
+package org.bbottema.clusteredobjectpool;
+
+import org.bbottema.clusteredobjectpool.core.ClusterConfig;
+import org.bbottema.clusteredobjectpool.core.ResourceCluster;
+import org.bbottema.clusteredobjectpool.core.ResourceClusters;
+import org.bbottema.clusteredobjectpool.core.api.ResourceKey.ResourceClusterAndPoolKey;
+import org.bbottema.genericobjectpool.PoolableObject;
+import org.bbottema.genericobjectpool.expirypolicies.TimeoutSinceCreationExpirationPolicy;
+import org.bbottema.genericobjectpool.util.Timeout;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResourceClustersHandleTest {
+
+	@Test
+	void claimsThroughHandleFollowTheClusterAcrossEviction() throws Exception {
+		final ResourceClusters<UUID, String, String> clusters = new ResourceClusters<>(ClusterConfig.<UUID, String, String>builder()
+				.allocatorFactory(new RoundRobinResourceClustersTestBase.DummyAllocatorFactory())
+				.defaultExpirationPolicy(new TimeoutSinceCreationExpirationPolicy<>(10, SECONDS))
+				.defaultMaxPoolSize(1)
+				.evictIdleClusterAfter(new Timeout(100, MILLISECONDS))
+				.build());
+		final UUID clusterKey = UUID.randomUUID();
+
+		try {
+			clusters.registerResourcePool(new ResourceClusterAndPoolKey<>(clusterKey, "server_A"));
+			final ResourceCluster<UUID, String, String> resourceCluster = clusters.getResourceCluster(clusterKey);
+			final PoolableObject<String> object = requireNonNull(resourceCluster.claimResource());
+
+			assertThat(object.getAllocatedObject()).isEqualTo("connection_A1");
+			assertThat(resourceCluster.claimMatchingResource(o -> true)).isNull();
+			assertThat(resourceCluster.getClusterKey()).isEqualTo(clusterKey);
+			assertThat(resourceCluster.getClusterConfig()).isSameAs(clusters.getClusterConfig());
+			assertThat(clusters.getResourceCluster(clusterKey)).isSameAs(resourceCluster);
+			object.invalidate();
+
+			final long deadline = System.currentTimeMillis() + 2000;
+			while (clusters.isClusterRegistered(clusterKey) && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			assertThat(clusters.isClusterRegistered(clusterKey)).isFalse();
+
+			// the old handle now goes to the cluster that replaces the evicted one
+			clusters.registerResourcePool(new ResourceClusterAndPoolKey<>(clusterKey, "server_B"));
+			final PoolableObject<String> objectFromNewCluster = requireNonNull(resourceCluster.claimResourceAsync().get(1, SECONDS));
+			assertThat(objectFromNewCluster.getAllocatedObject()).startsWith("connection_B");
+			objectFromNewCluster.release();
+		} finally {
+			clusters.shutDown().get(1, SECONDS);
+		}
+	}
+}
@@ -0,0 +1,169 @@
+package org.bbottema.clusteredobjectpool;
+
+import org.bbottema.clusteredobjectpool.core.ClusterConfig;
+import org.bbottema.clusteredobjectpool.core.ResourceCluster;
+import org.bbottema.clusteredobjectpool.core.ResourceClusters;
+import org.bbottema.clusteredobjectpool.core.api.ClaimListener;
+import org.bbottema.clusteredobjectpool.core.api.ResourceKey.ResourceClusterAndPoolKey;
+import org.bbottema.genericobjectpool.PoolableObject;
+import org.bbottema.genericobjectpool.expirypolicies.TimeoutSinceCreationExpirationPolicy;
+import org.bbottema.genericobjectpool.util.Timeout;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResourceClustersIdleClusterEvictionTest {
+
+	@Test
+	void clustersWithoutLiveObjectsAndClaimsAreEvicted() throws Exception {
+		final ResourceClusters<UUID, String, String> clusters = new ResourceClusters<>(ClusterConfig.<UUID, String, String>builder()
+				.allocatorFactory(new RoundRobinResourceClustersTestBase.DummyAllocatorFactory())
+				.defaultExpirationPolicy(new TimeoutSinceCreationExpirationPolicy<>(10, SECONDS))
+				.defaultMaxPoolSize(1)
+				.evictIdleClusterAfter(new Timeout(100, MILLISECONDS))
+				.build());
+		final ResourceClusterAndPoolKey<UUID, String> keyIdleTenant = new ResourceClusterAndPoolKey<>(UUID.randomUUID(), "server_A");
+		final ResourceClusterAndPoolKey<UUID, String> keyBusyTenant = new ResourceClusterAndPoolKey<>(UUID.randomUUID(), "server_A");
+
+		try {
+			requireNonNull(clusters.claimResourceFromPool(keyIdleTenant)).invalidate();
+			final PoolableObject<String> heldObject = requireNonNull(clusters.claimResourceFromPool(keyBusyTenant));
+
+			final long deadline = System.currentTimeMillis() + 2000;
+			while (clusters.isClusterRegistered(keyIdleTenant.getClusterKey()) && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			assertThat(clusters.isClusterRegistered(keyIdleTenant.getClusterKey())).isFalse();
+			assertThat(clusters.getMetrics()).doesNotContainKey(keyIdleTenant.getClusterKey());
+			assertThat(clusters.isPoolRegistered(keyBusyTenant)).isTrue();
+			assertThat(clusters.countLiveResources()).isOne();
+
+			// the evicted cluster is created anew on demand
+			final PoolableObject<String> objectFromNewCluster = requireNonNull(clusters.claimResourceFromPool(keyIdleTenant));
+			assertThat(clusters.isPoolRegistered(keyIdleTenant)).isTrue();
+			objectFromNewCluster.release();
+			heldObject.release();
+		} finally {
+			clusters.shutDown().get(1, SECONDS);
+		}
+	}
+
+	@Test
+	void registeredClusterConfigSurvivesEviction() throws Exception {
+		final ClusterConfig<UUID, String, String> globalConfig = ClusterConfig.<UUID, String, String>builder()
+				.allocatorFactory(new RoundRobinResourceClustersTestBase.DummyAllocatorFactory())
+				.defaultExpirationPolicy(new TimeoutSinceCreationExpirationPolicy<>(10, SECONDS))
+				.defaultMaxPoolSize(1)
+				.build();
+		final ClusterConfig<UUID, String, String> tenantConfig = ClusterConfig.<UUID, String, String>builder()
+				.allocatorFactory(new RoundRobinResourceClustersTestBase.DummyAllocatorFactory())
+				.defaultExpirationPolicy(new TimeoutSinceCreationExpirationPolicy<>(10, SECONDS))
+				.defaultMaxPoolSize(2)
+				.evictIdleClusterAfter(new Timeout(100, MILLISECONDS))
+				.build();
+		final ResourceClusters<UUID, String, String> clusters = new ResourceClusters<>(globalConfig);
+		final ResourceClusterAndPoolKey<UUID, String> keyTenant = new ResourceClusterAndPoolKey<>(UUID.randomUUID(), "server_A");
+
+		try {
+			clusters.registerResourceCluster(keyTenant.getClusterKey(), tenantConfig);
+			requireNonNull(clusters.claimResourceFromPool(keyTenant)).invalidate();
+
+			final long deadline = System.currentTimeMillis() + 2000;
+			while (clusters.isClusterRegistered(keyTenant.getClusterKey()) && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			assertThat(clusters.isClusterRegistered(keyTenant.getClusterKey())).isFalse();
+			assertThat(clusters.getClusterConfig(keyTenant.getClusterKey())).isSameAs(tenantConfig);
+
+			// the cluster created anew still has the max pool size of its own config
+			final PoolableObject<String> firstObject = requireNonNull(clusters.claimResourceFromPool(keyTenant));
+			final PoolableObject<String> secondObject = requireNonNull(clusters.claimResourceFromPool(keyTenant));
+			firstObject.release();
+			secondObject.release();
+		} finally {
+			clusters.shutDown().get(1, SECONDS);
+		}
+	}
+
+	@Test
+	void pollingForAMatchNeitherKeepsAClusterAliveNorCreatesItAnew() throws Exception {
+		final AtomicInteger claimEvents = new AtomicInteger();
+		final ResourceClusters<UUID, String, String> clusters = new ResourceClusters<>(ClusterConfig.<UUID, String, String>builder()
+				.allocatorFactory(new RoundRobinResourceClustersTestBase.DummyAllocatorFactory())
+				.defaultExpirationPolicy(new TimeoutSinceCreationExpirationPolicy<>(10, SECONDS))
+				.defaultMaxPoolSize(1)
+				.evictIdleClusterAfter(new Timeout(100, MILLISECONDS))
+				.claimListener(new ClaimListener<UUID, String, String>() {
+					@Override
+					public void claimStarted(@NotNull final UUID clusterKey, @Nullable final String poolKey) {
+						claimEvents.incrementAndGet();
+					}
+
+					@Override
+					public void claimTimedOut(@NotNull final UUID clusterKey, @Nullable final String poolKey, final long waitNanos) {
+						claimEvents.incrementAndGet();
+					}
+				})
+				.build());
+		final ResourceClusterAndPoolKey<UUID, String> keyTenant = new ResourceClusterAndPoolKey<>(UUID.randomUUID(), "server_A");
+		clusters.registerResourcePool(keyTenant);
+		final ResourceCluster<UUID, String, String> cluster = clusters.getResourceCluster(keyTenant.getClusterKey());
+
+		try {
+			final long deadline = System.currentTimeMillis() + 2000;
+			while (clusters.isClusterRegistered(keyTenant.getClusterKey()) && System.currentTimeMillis() < deadline) {
+				assertThat(cluster.claimMatchingResource(object -> true)).isNull();
+				Thread.sleep(10);
+			}
+			assertThat(clusters.isClusterRegistered(keyTenant.getClusterKey())).isFalse();
+			assertThat(claimEvents).hasValue(0);
+
+			assertThat(cluster.claimMatchingResource(object -> true)).isNull();
+			assertThat(clusters.isClusterRegistered(keyTenant.getClusterKey())).isFalse();
+		} finally {
+			clusters.shutDown().get(1, SECONDS);
+		}
+	}
+
+	@Test
+	void clusterIsNotEvictedWhileAClaimIsInFlight() throws Exception {
+		final ResourceClusters<UUID, String, String> clusters = new ResourceClusters<>(ClusterConfig.<UUID, String, String>builder()
+				.allocatorFactory(new RoundRobinResourceClustersTestBase.DummyAllocatorFactory())
+				.defaultExpirationPolicy(new TimeoutSinceCreationExpirationPolicy<>(10, SECONDS))
+				.defaultMaxPoolSize(1)
+				.claimTimeout(new Timeout(1, SECONDS))
+				.evictIdleClusterAfter(new Timeout(20, MILLISECONDS))
+				.claimListener(new ClaimListener<UUID, String, String>() {
+					@Override
+					public void claimStarted(@NotNull final UUID clusterKey, @Nullable final String poolKey) {
+						// holds the claim before it reaches the pool for much longer than the cluster may stay idle
+						try {
+							Thread.sleep(300);
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+					}
+				})
+				.build());
+		final ResourceClusterAndPoolKey<UUID, String> keyTenant = new ResourceClusterAndPoolKey<>(UUID.randomUUID(), "server_A");
+		clusters.registerResourcePool(keyTenant);
+
+		try {
+			final PoolableObject<String> object = requireNonNull(clusters.claimResourceFromCluster(keyTenant.getClusterKey()));
+			assertThat(object.getAllocatedObject()).isEqualTo("connection_A1");
+			assertThat(clusters.isClusterRegistered(keyTenant.getClusterKey())).isTrue();
+			assertThat(clusters.countLiveResources(keyTenant.getClusterKey())).isOne();
+			object.release();
+		} finally {
+			clusters.shutDown().get(1, SECONDS);
+		}
+	}
+}
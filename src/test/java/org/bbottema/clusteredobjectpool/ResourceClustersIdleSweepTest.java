@@ -0,0 +1,78 @@
+package org.bbottema.clusteredobjectpool;
+
+import org.bbottema.clusteredobjectpool.core.ClusterConfig;
+import org.bbottema.clusteredobjectpool.core.ResourceClusters;
+import org.bbottema.clusteredobjectpool.core.api.IdleResourceCheck;
+import org.bbottema.clusteredobjectpool.core.api.IdleSweepResult;
+import org.bbottema.clusteredobjectpool.core.api.ResourceKey.ResourceClusterAndPoolKey;
+import org.bbottema.genericobjectpool.expirypolicies.TimeoutSinceCreationExpirationPolicy;
+import org.bbottema.genericobjectpool.util.Timeout;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResourceClustersIdleSweepTest {
+
+	@Test
+	void sweepChecksIdleObjectsOfAllClustersWithBoundedConcurrency() throws Exception {
+		final ResourceClusters<UUID, String, String> clusters = new ResourceClusters<>(ClusterConfig.<UUID, String, String>builder()
+				.allocatorFactory(new RoundRobinResourceClustersTestBase.DummyAllocatorFactory())
+				.defaultExpirationPolicy(new TimeoutSinceCreationExpirationPolicy<>(10, SECONDS))
+				.defaultCorePoolSize(3)
+				.defaultMaxPoolSize(3)
+				.build());
+		clusters.registerResourcePool(new ResourceClusterAndPoolKey<>(UUID.randomUUID(), "server_A"));
+		clusters.registerResourcePool(new ResourceClusterAndPoolKey<>(UUID.randomUUID(), "server_B"));
+		final ExecutorService executorService = Executors.newFixedThreadPool(4);
+
+		try {
+			final long deadline = System.currentTimeMillis() + 1000;
+			while (clusters.countLiveResources() < 6 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			Thread.sleep(60);
+
+			final AtomicInteger concurrentChecks = new AtomicInteger();
+			final AtomicInteger maxConcurrentChecks = new AtomicInteger();
+			final IdleSweepResult result = clusters.sweepIdleResources(new Timeout(50, MILLISECONDS), new IdleResourceCheck<String>() {
+				@Override
+				public boolean check(@NotNull final String resource) throws Exception {
+					maxConcurrentChecks.accumulateAndGet(concurrentChecks.incrementAndGet(), Math::max);
+					try {
+						Thread.sleep(10);
+						if (resource.endsWith("3")) {
+							throw new IllegalStateException("connection lost");
+						}
+						return !resource.endsWith("2");
+					} finally {
+						concurrentChecks.decrementAndGet();
+					}
+				}
+			}, executorService, 2);
+
+			assertThat(result.getChecked()).isEqualTo(6);
+			assertThat(result.getInvalidated()).isEqualTo(4);
+			assertThat(result.getDurationNanos()).isPositive();
+			assertThat(maxConcurrentChecks.get()).isBetween(1, 2);
+
+			assertThatThrownBy(() -> clusters.sweepIdleResources(new Timeout(0, MILLISECONDS), new IdleResourceCheck<String>() {
+				@Override
+				public boolean check(@NotNull final String resource) {
+					return true;
+				}
+			}, executorService, 2)).isInstanceOf(IllegalArgumentException.class);
+		} finally {
+			executorService.shutdownNow();
+			clusters.shutDown().get(1, SECONDS);
+		}
+	}
+}
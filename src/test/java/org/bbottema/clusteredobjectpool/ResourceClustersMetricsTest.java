@@ -0,0 +1,154 @@
+package org.bbottema.clusteredobjectpool;
+
+import org.bbottema.clusteredobjectpool.core.ClusterConfig;
+import org.bbottema.clusteredobjectpool.core.ResourceClusters;
+import org.bbottema.clusteredobjectpool.core.api.ResourceClusterMetrics;
+import org.bbottema.clusteredobjectpool.core.api.ResourceKey.ResourceClusterAndPoolKey;
+import org.bbottema.clusteredobjectpool.core.api.ResourcePoolMetrics;
+import org.bbottema.genericobjectpool.PoolableObject;
+import org.bbottema.genericobjectpool.expirypolicies.TimeoutSinceCreationExpirationPolicy;
+import org.bbottema.genericobjectpool.util.Timeout;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResourceClustersMetricsTest {
+
+	@Test
+	void metricsReflectClaimsReleasesInvalidationsTimeoutsAndAllocationsPerPoolAndCluster() throws Exception {
+		final ResourceClusters<UUID, String, String> clusters = new ResourceClusters<>(ClusterConfig.<UUID, String, String>builder()
+				.allocatorFactory(new RoundRobinResourceClustersTestBase.DummyAllocatorFactory())
+				.defaultExpirationPolicy(new TimeoutSinceCreationExpirationPolicy<>(10, SECONDS))
+				.defaultMaxPoolSize(1)
+				.claimTimeout(new Timeout(50, MILLISECONDS))
+				.build());
+		final UUID keyCluster = UUID.randomUUID();
+		final ResourceClusterAndPoolKey<UUID, String> keyPoolA = new ResourceClusterAndPoolKey<>(keyCluster, "server_A");
+		final ResourceClusterAndPoolKey<UUID, String> keyPoolB = new ResourceClusterAndPoolKey<>(keyCluster, "server_B");
+		clusters.registerResourcePool(keyPoolA);
+		clusters.registerResourcePool(keyPoolB);
+
+		try {
+			final PoolableObject<String> objectFromA = requireNonNull(clusters.claimResourceFromPool(keyPoolA));
+			assertThat(clusters.claimResourceFromPool(keyPoolA)).isNull();
+
+			ResourcePoolMetrics poolMetrics = clusters.getMetrics().get(keyCluster).getPools().get("server_A");
+			assertThat(poolMetrics.getClaims()).isOne();
+			assertThat(poolMetrics.getTimeouts()).isOne();
+			assertThat(poolMetrics.getReleases()).isZero();
+			assertThat(poolMetrics.getAllocations()).isOne();
+			assertThat(poolMetrics.getInUse()).isOne();
+			assertThat(poolMetrics.getIdle()).isZero();
+			assertThat(poolMetrics.getClaimWaitHistogram().getCount()).isEqualTo(2);
+			assertThat(poolMetrics.getClaimWaitHistogram().getPercentileNanos(100)).isGreaterThanOrEqualTo(MILLISECONDS.toNanos(50));
+			assertThat(poolMetrics.getAllocationLatencyHistogram().getCount()).isOne();
+
+			objectFromA.release();
+			requireNonNull(clusters.claimResourceFromPool(keyPoolB)).release();
+
+			final ResourceClusterMetrics<String> clusterMetrics = clusters.getMetrics().get(keyCluster);
+			poolMetrics = clusterMetrics.getPools().get("server_A");
+			assertThat(poolMetrics.getReleases()).isOne();
+			assertThat(poolMetrics.getInUse()).isZero();
+			assertThat(poolMetrics.getIdle()).isOne();
+
+			assertThat(clusterMetrics.getPools()).containsOnlyKeys("server_A", "server_B");
+			assertThat(clusterMetrics.getClaims()).isEqualTo(2);
+			assertThat(clusterMetrics.getReleases()).isEqualTo(2);
+			assertThat(clusterMetrics.getTimeouts()).isOne();
+			assertThat(clusterMetrics.getAllocations()).isEqualTo(2);
+			assertThat(clusterMetrics.getIdle()).isEqualTo(2);
+			assertThat(clusterMetrics.getClaimWaitHistogram().getCount()).isEqualTo(3);
+
+			requireNonNull(clusters.claimResourceFromPool(keyPoolA)).invalidate();
+			final long deadline = System.currentTimeMillis() + 2000;
+			while (clusters.countLiveResources(keyCluster) > 1 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			poolMetrics = clusters.getMetrics().get(keyCluster).getPools().get("server_A");
+			assertThat(poolMetrics.getClaims()).isEqualTo(2);
+			assertThat(poolMetrics.getReleases()).isOne();
+			assertThat(poolMetrics.getInvalidations()).isOne();
+			assertThat(poolMetrics.getDeallocations()).isOne();
+		} finally {
+			clusters.shutDown();
+		}
+	}
+
+	@Test
+	void claimWaitIncludesTimeSpentBeforeTheFinalAttempt() throws Exception {
+		final ResourceClusters<UUID, String, String> clusters = new ResourceClusters<>(ClusterConfig.<UUID, String, String>builder()
+				.allocatorFactory(new RoundRobinResourceClustersTestBase.DummyAllocatorFactory())
+				.defaultExpirationPolicy(new TimeoutSinceCreationExpirationPolicy<>(10, SECONDS))
+				.defaultMaxPoolSize(1)
+				.claimTimeout(new Timeout(5, SECONDS))
+				.failoverClaims(true)
+				.build());
+		final UUID keyCluster = UUID.randomUUID();
+		final ResourceClusterAndPoolKey<UUID, String> keyPoolA = new ResourceClusterAndPoolKey<>(keyCluster, "server_A");
+		final ResourceClusterAndPoolKey<UUID, String> keyPoolB = new ResourceClusterAndPoolKey<>(keyCluster, "server_B");
+		clusters.registerResourcePool(keyPoolA);
+		clusters.registerResourcePool(keyPoolB);
+
+		try {
+			final PoolableObject<String> objectFromA = requireNonNull(clusters.claimResourceFromPool(keyPoolA));
+			final PoolableObject<String> objectFromB = requireNonNull(clusters.claimResourceFromPool(keyPoolB));
+			final CompletableFuture<PoolableObject<String>> queuedClaim = clusters.claimResourceFromClusterAsync(keyCluster);
+			final CompletableFuture<PoolableObject<String>> failoverClaim = CompletableFuture.supplyAsync(() -> {
+				try {
+					return clusters.claimResourceFromCluster(keyCluster);
+				} catch (InterruptedException e) {
+					throw new IllegalStateException(e);
+				}
+			});
+
+			Thread.sleep(100);
+			objectFromA.release();
+			objectFromB.release();
+			requireNonNull(queuedClaim.get(1, SECONDS)).release();
+			requireNonNull(failoverClaim.get(1, SECONDS)).release();
+
+			// both the queued and the failover claim waited on the cluster as a whole before claiming from one of the pools
+			final ResourceClusterMetrics<String> clusterMetrics = clusters.getMetrics().get(keyCluster);
+			assertThat(clusterMetrics.getClaims()).isEqualTo(4);
+			assertThat(clusterMetrics.getClaimWaitHistogram().getPercentileNanos(75)).isGreaterThanOrEqualTo(MILLISECONDS.toNanos(100));
+		} finally {
+			clusters.shutDown();
+		}
+	}
+
+	@Test
+	void liveResourcesAreCountedGloballyAndPerCluster() throws Exception {
+		final ResourceClusters<UUID, String, String> clusters = new ResourceClusters<>(ClusterConfig.<UUID, String, String>builder()
+				.allocatorFactory(new RoundRobinResourceClustersTestBase.DummyAllocatorFactory())
+				.defaultExpirationPolicy(new TimeoutSinceCreationExpirationPolicy<>(10, SECONDS))
+				.defaultMaxPoolSize(2)
+				.build());
+		final UUID keyCluster1 = UUID.randomUUID();
+		final UUID keyCluster2 = UUID.randomUUID();
+
+		final PoolableObject<String> object1 = requireNonNull(clusters.claimResourceFromPool(new ResourceClusterAndPoolKey<>(keyCluster1, "server_A")));
+		final PoolableObject<String> object2 = requireNonNull(clusters.claimResourceFromPool(new ResourceClusterAndPoolKey<>(keyCluster1, "server_A")));
+		final PoolableObject<String> object3 = requireNonNull(clusters.claimResourceFromPool(new ResourceClusterAndPoolKey<>(keyCluster2, "server_B")));
+
+		assertThat(clusters.countLiveResources()).isEqualTo(3);
+		assertThat(clusters.countLiveResources(keyCluster1)).isEqualTo(2);
+		assertThat(clusters.countLiveResources(keyCluster2)).isOne();
+		assertThat(clusters.countLiveResources(UUID.randomUUID())).isZero();
+
+		object1.release();
+		object2.release();
+		object3.release();
+		clusters.shutDown().get();
+
+		assertThat(clusters.countLiveResources()).isZero();
+		assertThat(clusters.countLiveResources(keyCluster1)).isZero();
+		assertThat(clusters.countLiveResources(keyCluster2)).isZero();
+	}
+}
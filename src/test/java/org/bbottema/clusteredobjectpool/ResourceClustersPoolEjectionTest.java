@@ -0,0 +1,163 @@
+package org.bbottema.clusteredobjectpool;
+
+import org.bbottema.clusteredobjectpool.core.ClusterConfig;
+import org.bbottema.clusteredobjectpool.core.PoolEjection;
+import org.bbottema.clusteredobjectpool.core.ResourceClusters;
+import org.bbottema.clusteredobjectpool.core.api.AllocatorFactory;
+import org.bbottema.clusteredobjectpool.core.api.ResourceKey;
+import org.bbottema.clusteredobjectpool.core.api.ResourceKey.ResourceClusterAndPoolKey;
+import org.bbottema.clusteredobjectpool.core.api.ResourcePoolMetrics;
+import org.bbottema.clusteredobjectpool.cyclingstrategies.RoundRobinLoadBalancing;
+import org.bbottema.genericobjectpool.Allocator;
+import org.bbottema.genericobjectpool.PoolableObject;
+import org.bbottema.genericobjectpool.expirypolicies.TimeoutSinceCreationExpirationPolicy;
+import org.bbottema.genericobjectpool.util.Timeout;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResourceClustersPoolEjectionTest {
+
+	private volatile boolean serverBDown = true;
+
+	@Test
+	void failingPoolIsEjectedFromClusterClaimsAndReadmittedAfterProbe() throws Exception {
+		final ResourceClusters<UUID, String, String> clusters = new ResourceClusters<>(ClusterConfig.<UUID, String, String>builder()
+				.allocatorFactory(new FlakyAllocatorFactory())
+				.defaultExpirationPolicy(new TimeoutSinceCreationExpirationPolicy<>(10, SECONDS))
+				.defaultMaxPoolSize(3)
+				.claimTimeout(new Timeout(1, SECONDS))
+				.loadBalancingStrategy(new RoundRobinLoadBalancing())
+				.poolEjection(PoolEjection.builder()
+						.consecutiveFailures(2)
+						.baseEjectionTime(new Timeout(200, MILLISECONDS))
+						.build())
+				.build());
+		final UUID keyCluster = UUID.randomUUID();
+		final ResourceClusterAndPoolKey<UUID, String> keyPoolA = new ResourceClusterAndPoolKey<>(keyCluster, "server_A");
+		final ResourceClusterAndPoolKey<UUID, String> keyPoolB = new ResourceClusterAndPoolKey<>(keyCluster, "server_B");
+		clusters.registerResourcePool(keyPoolA);
+		clusters.registerResourcePool(keyPoolB);
+
+		try {
+			for (int i = 0; i < 2; i++) {
+				assertThatThrownBy(() -> clusters.claimResourceFromPool(keyPoolB)).isInstanceOf(IllegalStateException.class);
+			}
+			assertThat(poolMetrics(clusters, keyCluster, "server_B").isEjected()).isTrue();
+			assertThat(poolMetrics(clusters, keyCluster, "server_B").getEjections()).isPositive();
+
+			// round robin would alternate, but B is skipped while ejected
+			for (int i = 0; i < 3; i++) {
+				final PoolableObject<String> object = requireNonNull(clusters.claimResourceFromCluster(keyCluster));
+				assertThat(object.getAllocatedObject()).startsWith("server_A");
+				object.release();
+			}
+
+			serverBDown = false;
+			final long deadline = System.currentTimeMillis() + 5000;
+			while (poolMetrics(clusters, keyCluster, "server_B").isEjected() && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			assertThat(poolMetrics(clusters, keyCluster, "server_B").isEjected()).isFalse();
+
+			final PoolableObject<String> first = requireNonNull(clusters.claimResourceFromCluster(keyCluster));
+			final PoolableObject<String> second = requireNonNull(clusters.claimResourceFromCluster(keyCluster));
+			assertThat(asList(first.getAllocatedObject(), second.getAllocatedObject())).anyMatch(object -> object.startsWith("server_B"));
+			first.release();
+			second.release();
+		} finally {
+			clusters.shutDown().get(1, SECONDS);
+		}
+	}
+
+	@Test
+	void probeRunsOffTheSchedulerAndSurvivesErrors() throws Exception {
+		final AtomicInteger allocationsOfB = new AtomicInteger();
+		final Set<String> allocatingThreadsOfB = ConcurrentHashMap.newKeySet();
+		final ResourceClusters<UUID, String, String> clusters = new ResourceClusters<>(ClusterConfig.<UUID, String, String>builder()
+				.allocatorFactory(resourceKey -> new Allocator<String>() {
+					@NotNull
+					@Override
+					public String allocate() {
+						if (resourceKey.getPoolKey().equals("server_B")) {
+							allocatingThreadsOfB.add(Thread.currentThread().getName());
+							final int allocation = allocationsOfB.incrementAndGet();
+							if (allocation <= 2) {
+								throw new IllegalStateException("server_B is down");
+							} else if (allocation == 3) {
+								throw new NoClassDefFoundError("server_B driver");
+							}
+						}
+						return resourceKey.getPoolKey();
+					}
+				})
+				.defaultExpirationPolicy(new TimeoutSinceCreationExpirationPolicy<>(10, SECONDS))
+				.defaultMaxPoolSize(1)
+				.claimTimeout(new Timeout(1, SECONDS))
+				.poolEjection(PoolEjection.builder()
+						.consecutiveFailures(2)
+						.baseEjectionTime(new Timeout(50, MILLISECONDS))
+						.build())
+				.build());
+		final UUID keyCluster = UUID.randomUUID();
+		final ResourceClusterAndPoolKey<UUID, String> keyPoolB = new ResourceClusterAndPoolKey<>(keyCluster, "server_B");
+		clusters.registerResourcePool(keyPoolB);
+
+		try {
+			for (int i = 0; i < 2; i++) {
+				assertThatThrownBy(() -> clusters.claimResourceFromPool(keyPoolB)).isInstanceOf(IllegalStateException.class);
+			}
+			assertThat(poolMetrics(clusters, keyCluster, "server_B").isEjected()).isTrue();
+
+			// the first probe fails with an error, the next one readmits the pool
+			final long deadline = System.currentTimeMillis() + 5000;
+			while (poolMetrics(clusters, keyCluster, "server_B").isEjected() && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			assertThat(poolMetrics(clusters, keyCluster, "server_B").isEjected()).isFalse();
+			assertThat(allocationsOfB.get()).isGreaterThanOrEqualTo(4);
+			assertThat(allocatingThreadsOfB).doesNotContain("clustered-object-pool-async-claims");
+			// the failed probe kept the pool ejected rather than ejecting it again, and the probes are counted like the pool's own allocations
+			assertThat(poolMetrics(clusters, keyCluster, "server_B").getEjections()).isEqualTo(1);
+			assertThat(poolMetrics(clusters, keyCluster, "server_B").getAllocations()).isEqualTo(1);
+			assertThat(poolMetrics(clusters, keyCluster, "server_B").getDeallocations()).isEqualTo(1);
+			assertThat(clusters.countLiveResources(keyCluster)).isZero();
+		} finally {
+			clusters.shutDown().get(1, SECONDS);
+		}
+	}
+
+	private static ResourcePoolMetrics poolMetrics(final ResourceClusters<UUID, String, String> clusters, final UUID keyCluster, final String keyPool) {
+		return clusters.getMetrics().get(keyCluster).getPools().get(keyPool);
+	}
+
+	private class FlakyAllocatorFactory implements AllocatorFactory<UUID, String, String> {
+		@NotNull
+		@Override
+		public Allocator<String> create(@NotNull final ResourceKey<UUID, String> resourceKey) {
+			return new Allocator<String>() {
+				private int allocations;
+
+				@NotNull
+				@Override
+				public synchronized String allocate() {
+					if (serverBDown && resourceKey.getPoolKey().equals("server_B")) {
+						throw new IllegalStateException("server_B is down");
+					}
+					return resourceKey.getPoolKey() + "_" + ++allocations;
+				}
+			};
+		}
+	}
+}
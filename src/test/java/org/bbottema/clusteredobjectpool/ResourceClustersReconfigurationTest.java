@@ -0,0 +1,102 @@
+package org.bbottema.clusteredobjectpool;
+
+import org.bbottema.clusteredobjectpool.core.ClusterConfig;
+import org.bbottema.clusteredobjectpool.core.ResourceClusters;
+import org.bbottema.clusteredobjectpool.core.api.ResourceKey.ResourceClusterAndPoolKey;
+import org.bbottema.clusteredobjectpool.cyclingstrategies.RoundRobinLoadBalancing;
+import org.bbottema.genericobjectpool.PoolableObject;
+import org.bbottema.genericobjectpool.expirypolicies.TimeoutSinceCreationExpirationPolicy;
+import org.bbottema.genericobjectpool.util.Timeout;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResourceClustersReconfigurationTest {
+
+	private final UUID keyCluster = UUID.randomUUID();
+	private final ResourceClusterAndPoolKey<UUID, String> keyPoolA = new ResourceClusterAndPoolKey<>(keyCluster, "server_A");
+	private final ResourceClusterAndPoolKey<UUID, String> keyPoolB = new ResourceClusterAndPoolKey<>(keyCluster, "server_B");
+
+	private ResourceClusters<UUID, String, String> clusters;
+	private ExecutorService executorService;
+
+	@BeforeEach
+	void setup() {
+		clusters = new ResourceClusters<>(ClusterConfig.<UUID, String, String>builder()
+				.allocatorFactory(new RoundRobinResourceClustersTestBase.DummyAllocatorFactory())
+				.defaultExpirationPolicy(new TimeoutSinceCreationExpirationPolicy<>(10, SECONDS))
+				.defaultMaxPoolSize(1)
+				.claimTimeout(new Timeout(2, SECONDS))
+				.loadBalancingStrategy(new RoundRobinLoadBalancing())
+				.build());
+		executorService = Executors.newSingleThreadExecutor();
+	}
+
+	@AfterEach
+	void tearDown() {
+		executorService.shutdownNow();
+		clusters.shutDown();
+	}
+
+	@Test
+	void reconfiguredPoolServesWaitingClaimsWhileThePreviousPoolDrains() throws Exception {
+		clusters.registerResourcePool(keyPoolA);
+		final PoolableObject<String> objectFromPreviousPool = requireNonNull(clusters.claimResourceFromPool(keyPoolA));
+		final Future<PoolableObject<String>> waitingClaim = executorService.submit(new Callable<PoolableObject<String>>() {
+			@Override
+			public PoolableObject<String> call() throws InterruptedException {
+				return clusters.claimResourceFromPool(keyPoolA);
+			}
+		});
+
+		final CompletableFuture<Void> drained = clusters.reconfigureResourcePool(keyPoolA,
+				new TimeoutSinceCreationExpirationPolicy<String>(20, SECONDS), 0, 2);
+
+		final PoolableObject<String> objectFromNewPool = requireNonNull(waitingClaim.get(1, SECONDS));
+		final PoolableObject<String> secondObjectFromNewPool = requireNonNull(clusters.claimResourceFromPool(keyPoolA));
+		assertThat(clusters.getMetrics().get(keyCluster).getPools().get("server_A").getMaxPoolSize()).isEqualTo(2);
+		assertThat(clusters.countLiveResources(keyCluster)).isEqualTo(3);
+		assertThat(drained).isNotDone();
+
+		objectFromPreviousPool.release();
+		drained.get(1, SECONDS);
+		assertThat(clusters.countLiveResources(keyCluster)).isEqualTo(2);
+
+		objectFromNewPool.release();
+		secondObjectFromNewPool.release();
+	}
+
+	@Test
+	void removedPoolDrainsWhileClusterClaimsGoToTheRemainingPools() throws Exception {
+		clusters.registerResourcePool(keyPoolA);
+		clusters.registerResourcePool(keyPoolB);
+		final PoolableObject<String> objectFromA = requireNonNull(clusters.claimResourceFromPool(keyPoolA));
+
+		final CompletableFuture<Void> drained = clusters.removeResourcePool(keyPoolA);
+		assertThat(clusters.isPoolRegistered(keyPoolA)).isFalse();
+		assertThat(clusters.isPoolRegistered(keyPoolB)).isTrue();
+
+		for (int i = 0; i < 3; i++) {
+			final PoolableObject<String> objectFromCluster = requireNonNull(clusters.claimResourceFromCluster(keyCluster));
+			assertThat(objectFromCluster.getAllocatedObject()).isEqualTo("connection_B1");
+			objectFromCluster.release();
+		}
+		assertThat(drained).isNotDone();
+
+		objectFromA.release();
+		drained.get(1, SECONDS);
+		assertThat(clusters.countLiveResources(keyCluster)).isOne();
+		assertThat(clusters.removeResourcePool(new ResourceClusterAndPoolKey<>(UUID.randomUUID(), "server_C"))).isDone();
+	}
+}
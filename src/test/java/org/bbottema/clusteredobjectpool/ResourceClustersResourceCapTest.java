@@ -0,0 +1,123 @@
+package org.bbottema.clusteredobjectpool;
+
+import org.bbottema.clusteredobjectpool.core.ClusterConfig;
+import org.bbottema.clusteredobjectpool.core.ResourceClusters;
+import org.bbottema.clusteredobjectpool.core.api.ResourceKey.ResourceClusterAndPoolKey;
+import org.bbottema.clusteredobjectpool.cyclingstrategies.RoundRobinLoadBalancing;
+import org.bbottema.genericobjectpool.PoolableObject;
+import org.bbottema.genericobjectpool.expirypolicies.TimeoutSinceCreationExpirationPolicy;
+import org.bbottema.genericobjectpool.util.Timeout;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResourceClustersResourceCapTest {
+
+	@Test
+	void poolsShareTheClusterResourceCap() throws Exception {
+		final ResourceClusters<UUID, String, String> clusters = new ResourceClusters<>(ClusterConfig.<UUID, String, String>builder()
+				.allocatorFactory(new RoundRobinResourceClustersTestBase.DummyAllocatorFactory())
+				.defaultExpirationPolicy(new TimeoutSinceCreationExpirationPolicy<>(10, SECONDS))
+				.defaultMaxPoolSize(2)
+				.maxResources(2)
+				.claimTimeout(new Timeout(200, MILLISECONDS))
+				.loadBalancingStrategy(new RoundRobinLoadBalancing())
+				.build());
+		final UUID keyCluster = UUID.randomUUID();
+		final ResourceClusterAndPoolKey<UUID, String> keyPoolA = new ResourceClusterAndPoolKey<>(keyCluster, "server_A");
+		final ResourceClusterAndPoolKey<UUID, String> keyPoolB = new ResourceClusterAndPoolKey<>(keyCluster, "server_B");
+		clusters.registerResourcePool(keyPoolA);
+		clusters.registerResourcePool(keyPoolB);
+
+		try {
+			final PoolableObject<String> firstObjectFromA = requireNonNull(clusters.claimResourceFromPool(keyPoolA));
+			final PoolableObject<String> secondObjectFromA = requireNonNull(clusters.claimResourceFromPool(keyPoolA));
+
+			// B is below its own max, but would exceed the cluster's cap
+			assertThat(clusters.claimResourceFromPool(keyPoolB)).isNull();
+			assertThat(clusters.countLiveResources(keyCluster)).isEqualTo(2);
+
+			// round robin selects B first, which is skipped as it would have to allocate
+			firstObjectFromA.release();
+			final PoolableObject<String> reusedObject = requireNonNull(clusters.claimResourceFromCluster(keyCluster));
+			assertThat(reusedObject.getAllocatedObject()).isEqualTo("connection_A1");
+
+			// deallocating returns the permit to the cluster
+			secondObjectFromA.invalidate();
+			final PoolableObject<String> objectFromB = requireNonNull(clusters.claimResourceFromPool(keyPoolB));
+			assertThat(objectFromB.getAllocatedObject()).isEqualTo("connection_B1");
+			assertThat(clusters.countLiveResources(keyCluster)).isEqualTo(2);
+
+			reusedObject.release();
+			objectFromB.release();
+		} finally {
+			clusters.shutDown().get(1, SECONDS);
+		}
+	}
+
+	@Test
+	void claimOnAPoolWithNothingIdleMakesRoomByDeallocatingAnIdleObjectOfAnotherPool() throws Exception {
+		final ResourceClusters<UUID, String, String> clusters = new ResourceClusters<>(ClusterConfig.<UUID, String, String>builder()
+				.allocatorFactory(new RoundRobinResourceClustersTestBase.DummyAllocatorFactory())
+				.defaultExpirationPolicy(new TimeoutSinceCreationExpirationPolicy<>(10, SECONDS))
+				.defaultMaxPoolSize(2)
+				.maxResources(2)
+				.claimTimeout(new Timeout(1, SECONDS))
+				.build());
+		final UUID keyCluster = UUID.randomUUID();
+		final ResourceClusterAndPoolKey<UUID, String> keyPoolA = new ResourceClusterAndPoolKey<>(keyCluster, "server_A");
+		final ResourceClusterAndPoolKey<UUID, String> keyPoolB = new ResourceClusterAndPoolKey<>(keyCluster, "server_B");
+		clusters.registerResourcePool(keyPoolA);
+		clusters.registerResourcePool(keyPoolB);
+
+		try {
+			final PoolableObject<String> firstObjectFromA = requireNonNull(clusters.claimResourceFromPool(keyPoolA));
+			final PoolableObject<String> secondObjectFromA = requireNonNull(clusters.claimResourceFromPool(keyPoolA));
+			secondObjectFromA.release();
+
+			// A's idle object holds the last permit, so it is deallocated for B
+			final PoolableObject<String> objectFromB = requireNonNull(clusters.claimResourceFromPool(keyPoolB));
+			assertThat(objectFromB.getAllocatedObject()).isEqualTo("connection_B1");
+			assertThat(clusters.countLiveResources(keyCluster)).isEqualTo(2);
+
+			firstObjectFromA.release();
+			objectFromB.release();
+		} finally {
+			clusters.shutDown().get(1, SECONDS);
+		}
+	}
+
+	@Test
+	void claimWaitingForTheResourceCapTimesOutOnTime() throws Exception {
+		final ResourceClusters<UUID, String, String> clusters = new ResourceClusters<>(ClusterConfig.<UUID, String, String>builder()
+				.allocatorFactory(new RoundRobinResourceClustersTestBase.DummyAllocatorFactory())
+				.defaultExpirationPolicy(new TimeoutSinceCreationExpirationPolicy<>(10, SECONDS))
+				.defaultMaxPoolSize(2)
+				.maxResources(1)
+				.claimTimeout(new Timeout(200, MILLISECONDS))
+				.build());
+		final UUID keyCluster = UUID.randomUUID();
+		final ResourceClusterAndPoolKey<UUID, String> keyPoolA = new ResourceClusterAndPoolKey<>(keyCluster, "server_A");
+		final ResourceClusterAndPoolKey<UUID, String> keyPoolB = new ResourceClusterAndPoolKey<>(keyCluster, "server_B");
+		clusters.registerResourcePool(keyPoolA);
+		clusters.registerResourcePool(keyPoolB);
+
+		try {
+			final PoolableObject<String> objectFromA = requireNonNull(clusters.claimResourceFromPool(keyPoolA));
+
+			final long claimStart = System.currentTimeMillis();
+			assertThat(clusters.claimResourceFromPool(keyPoolB)).isNull();
+			assertThat(System.currentTimeMillis() - claimStart).isBetween(150L, 1000L);
+			assertThat(clusters.countLiveResources(keyCluster)).isEqualTo(1);
+
+			objectFromA.release();
+		} finally {
+			clusters.shutDown().get(1, SECONDS);
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package org.bbottema.clusteredobjectpool;
+
+import org.bbottema.clusteredobjectpool.core.ClusterConfig;
+import org.bbottema.clusteredobjectpool.core.ResourceClusters;
+import org.bbottema.clusteredobjectpool.core.api.ResourceKey.ResourceClusterAndPoolKey;
+import org.bbottema.clusteredobjectpool.cyclingstrategies.RoundRobinLoadBalancing;
+import org.bbottema.genericobjectpool.PoolableObject;
+import org.bbottema.genericobjectpool.expirypolicies.TimeoutSinceCreationExpirationPolicy;
+import org.bbottema.genericobjectpool.util.Timeout;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResourceClustersThreadAffineClaimsTest {
+
+	@Test
+	void threadKeepsClaimingFromItsLastPoolWhileThatHasAnIdleObject() throws Exception {
+		assertThreadAffineClaims(false);
+	}
+
+	@Test
+	void threadAffinityAppliesToFailoverClaimsAsWell() throws Exception {
+		assertThreadAffineClaims(true);
+	}
+
+	@Test
+	void threadForgetsItsLastPoolOnceThatIsRemoved() throws Exception {
+		final ResourceClusters<UUID, String, String> clusters = new ResourceClusters<>(ClusterConfig.<UUID, String, String>builder()
+				.allocatorFactory(new RoundRobinResourceClustersTestBase.DummyAllocatorFactory())
+				.defaultExpirationPolicy(new TimeoutSinceCreationExpirationPolicy<>(10, SECONDS))
+				.defaultMaxPoolSize(2)
+				.claimTimeout(new Timeout(1, SECONDS))
+				.loadBalancingStrategy(new RoundRobinLoadBalancing())
+				.threadAffineClaims(true)
+				.build());
+		final UUID keyCluster = UUID.randomUUID();
+		final ResourceClusterAndPoolKey<UUID, String> keyPoolA = new ResourceClusterAndPoolKey<>(keyCluster, "server_A");
+		clusters.registerResourcePool(keyPoolA);
+		clusters.registerResourcePool(new ResourceClusterAndPoolKey<>(keyCluster, "server_B"));
+
+		try {
+			final PoolableObject<String> objectFromA = requireNonNull(clusters.claimResourceFromCluster(keyCluster));
+			assertThat(objectFromA.getAllocatedObject()).isEqualTo("connection_A1");
+			objectFromA.release();
+			clusters.removeResourcePool(keyPoolA).get(1, SECONDS);
+
+			final PoolableObject<String> objectFromB = requireNonNull(clusters.claimResourceFromCluster(keyCluster));
+			assertThat(objectFromB.getAllocatedObject()).isEqualTo("connection_B1");
+			objectFromB.release();
+		} finally {
+			clusters.shutDown().get(1, SECONDS);
+		}
+	}
+
+	private static void assertThreadAffineClaims(final boolean failoverClaims) throws Exception {
+		final ResourceClusters<UUID, String, String> clusters = new ResourceClusters<>(ClusterConfig.<UUID, String, String>builder()
+				.allocatorFactory(new RoundRobinResourceClustersTestBase.DummyAllocatorFactory())
+				.defaultExpirationPolicy(new TimeoutSinceCreationExpirationPolicy<>(10, SECONDS))
+				.defaultMaxPoolSize(2)
+				.claimTimeout(new Timeout(1, SECONDS))
+				.loadBalancingStrategy(new RoundRobinLoadBalancing())
+				.failoverClaims(failoverClaims)
+				.threadAffineClaims(true)
+				.build());
+		final UUID keyCluster = UUID.randomUUID();
+		clusters.registerResourcePool(new ResourceClusterAndPoolKey<>(keyCluster, "server_A"));
+		clusters.registerResourcePool(new ResourceClusterAndPoolKey<>(keyCluster, "server_B"));
+
+		try {
+			final PoolableObject<String> firstObject = requireNonNull(clusters.claimResourceFromCluster(keyCluster));
+			assertThat(firstObject.getAllocatedObject()).isEqualTo("connection_A1");
+			firstObject.release();
+
+			// round robin would alternate between the pools
+			for (int i = 0; i < 3; i++) {
+				final PoolableObject<String> object = requireNonNull(clusters.claimResourceFromCluster(keyCluster));
+				assertThat(object.getAllocatedObject()).isEqualTo("connection_A1");
+				object.release();
+			}
+
+			// without an idle object in that pool, the strategy decides again
+			final PoolableObject<String> heldObject = requireNonNull(clusters.claimResourceFromCluster(keyCluster));
+			assertThat(heldObject.getAllocatedObject()).isEqualTo("connection_A1");
+			final PoolableObject<String> objectFromStrategy = requireNonNull(clusters.claimResourceFromCluster(keyCluster));
+			assertThat(objectFromStrategy.getAllocatedObject()).isEqualTo("connection_B1");
+			heldObject.release();
+			objectFromStrategy.release();
+		} finally {
+			clusters.shutDown().get(1, SECONDS);
+		}
+	}
+}
@@ -0,0 +1,155 @@
+package org.bbottema.clusteredobjectpool;
+
+import org.bbottema.clusteredobjectpool.core.ClusterConfig;
+import org.bbottema.clusteredobjectpool.core.ResourceClusters;
+import org.bbottema.clusteredobjectpool.core.api.AllocatorFactory;
+import org.bbottema.clusteredobjectpool.core.api.ResourceKey;
+import org.bbottema.clusteredobjectpool.core.api.ResourceKey.ResourceClusterAndPoolKey;
+import org.bbottema.genericobjectpool.Allocator;
+import org.bbottema.genericobjectpool.PoolableObject;
+import org.bbottema.genericobjectpool.expirypolicies.TimeoutSinceCreationExpirationPolicy;
+import org.bbottema.genericobjectpool.util.Timeout;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResourceClustersWarmUpTest {
+
+	@Test
+	void warmUpCompletesOnceAllPoolsReachCoreSizeWithBoundedConcurrentAllocations() throws Exception {
+		final GatedAllocatorFactory allocatorFactory = new GatedAllocatorFactory();
+		final ResourceClusters<UUID, String, String> clusters = new ResourceClusters<>(ClusterConfig.<UUID, String, String>builder()
+				.allocatorFactory(allocatorFactory)
+				.defaultExpirationPolicy(new TimeoutSinceCreationExpirationPolicy<>(10, SECONDS))
+				.defaultCorePoolSize(2)
+				.defaultMaxPoolSize(2)
+				.maxConcurrentAllocations(1)
+				.build());
+		final UUID keyCluster = UUID.randomUUID();
+		clusters.registerResourcePool(new ResourceClusterAndPoolKey<>(keyCluster, "server_A"));
+		clusters.registerResourcePool(new ResourceClusterAndPoolKey<>(keyCluster, "server_B"));
+
+		try {
+			final CompletableFuture<Void> warmUp = clusters.warmUp(keyCluster);
+			assertThat(warmUp).isNotDone();
+
+			allocatorFactory.allowAllocations(3);
+			assertThat(allocatorFactory.awaitAllocations(3)).isTrue();
+			assertThat(warmUp).isNotDone();
+
+			allocatorFactory.allowAllocations(1);
+			warmUp.get(1, SECONDS);
+
+			assertThat(clusters.countLiveResources(keyCluster)).isEqualTo(4);
+			assertThat(allocatorFactory.maxConcurrentAllocations.get()).isOne();
+			assertThat(clusters.warmUp(UUID.randomUUID())).isDone();
+		} finally {
+			allocatorFactory.allowAllocations(100);
+			clusters.shutDown().get(1, SECONDS);
+		}
+	}
+
+	@Test
+	void warmUpFailsWhenPoolsAreNotWarmInTime() throws Exception {
+		final GatedAllocatorFactory allocatorFactory = new GatedAllocatorFactory();
+		final ResourceClusters<UUID, String, String> clusters = new ResourceClusters<>(ClusterConfig.<UUID, String, String>builder()
+				.allocatorFactory(allocatorFactory)
+				.defaultExpirationPolicy(new TimeoutSinceCreationExpirationPolicy<>(10, SECONDS))
+				.defaultCorePoolSize(2)
+				.defaultMaxPoolSize(2)
+				.build());
+		final UUID keyCluster = UUID.randomUUID();
+
+		try {
+			final CompletableFuture<Void> warmUp = clusters.warmUp(new ResourceClusterAndPoolKey<>(keyCluster, "server_A"), new Timeout(100, MILLISECONDS));
+
+			assertThatThrownBy(() -> warmUp.get(1, SECONDS)).isInstanceOf(ExecutionException.class).hasCauseInstanceOf(TimeoutException.class);
+		} finally {
+			allocatorFactory.allowAllocations(100);
+			clusters.shutDown().get(1, SECONDS);
+		}
+	}
+
+	@Test
+	void claimWaitsForATurnToAllocateNoLongerThanItsTimeout() throws Exception {
+		final GatedAllocatorFactory allocatorFactory = new GatedAllocatorFactory();
+		final ResourceClusters<UUID, String, String> clusters = new ResourceClusters<>(ClusterConfig.<UUID, String, String>builder()
+				.allocatorFactory(allocatorFactory)
+				.defaultExpirationPolicy(new TimeoutSinceCreationExpirationPolicy<>(10, SECONDS))
+				.defaultMaxPoolSize(1)
+				.maxConcurrentAllocations(1)
+				.claimTimeout(new Timeout(100, MILLISECONDS))
+				.build());
+		final UUID keyCluster = UUID.randomUUID();
+
+		try {
+			final CompletableFuture<PoolableObject<String>> slowClaim = CompletableFuture.supplyAsync(() -> {
+				try {
+					return clusters.claimResourceFromPool(new ResourceClusterAndPoolKey<>(keyCluster, "server_A"));
+				} catch (InterruptedException e) {
+					throw new IllegalStateException(e);
+				}
+			});
+			while (allocatorFactory.concurrentAllocations.get() == 0) {
+				Thread.sleep(1);
+			}
+
+			final long claimStartMs = System.currentTimeMillis();
+			assertThat(clusters.claimResourceFromPool(new ResourceClusterAndPoolKey<>(keyCluster, "server_B"))).isNull();
+			assertThat(System.currentTimeMillis() - claimStartMs).isBetween(100L, 1000L);
+
+			allocatorFactory.allowAllocations(1);
+			requireNonNull(slowClaim.get(1, SECONDS)).release();
+		} finally {
+			allocatorFactory.allowAllocations(100);
+			clusters.shutDown().get(1, SECONDS);
+		}
+	}
+
+	private static class GatedAllocatorFactory implements AllocatorFactory<UUID, String, String> {
+		private final Semaphore allowedAllocations = new Semaphore(0);
+		private final Semaphore finishedAllocations = new Semaphore(0);
+		private final AtomicInteger concurrentAllocations = new AtomicInteger();
+		private final AtomicInteger maxConcurrentAllocations = new AtomicInteger();
+
+		@NotNull
+		@Override
+		public Allocator<String> create(@NotNull final ResourceKey<UUID, String> resourceKey) {
+			return new Allocator<String>() {
+				@NotNull
+				@Override
+				public String allocate() {
+					final int concurrent = concurrentAllocations.incrementAndGet();
+					maxConcurrentAllocations.accumulateAndGet(concurrent, Math::max);
+					try {
+						allowedAllocations.acquireUninterruptibly();
+						return resourceKey.getPoolKey();
+					} finally {
+						concurrentAllocations.decrementAndGet();
+						finishedAllocations.release();
+					}
+				}
+			};
+		}
+
+		void allowAllocations(final int allocations) {
+			allowedAllocations.release(allocations);
+		}
+
+		boolean awaitAllocations(final int allocations) throws InterruptedException {
+			return finishedAllocations.tryAcquire(allocations, 1, SECONDS);
+		}
+	}
+}
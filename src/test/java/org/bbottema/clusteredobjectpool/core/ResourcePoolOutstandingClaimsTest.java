@@ -0,0 +1,63 @@
+package org.bbottema.clusteredobjectpool.core;
+
+import org.bbottema.clusteredobjectpool.RoundRobinResourceClustersTestBase;
+import org.bbottema.clusteredobjectpool.core.api.ResourceKey.ResourceClusterAndPoolKey;
+import org.bbottema.genericobjectpool.PoolableObject;
+import org.bbottema.genericobjectpool.expirypolicies.TimeoutSinceCreationExpirationPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResourcePoolOutstandingClaimsTest {
+
+	@Test
+	void outstandingClaimsFollowClaimsAndReturnsButNotIdleExpiry() throws Exception {
+		final ResourceClusters<UUID, String, String> clusters = new ResourceClusters<>(ClusterConfig.<UUID, String, String>builder()
+				.allocatorFactory(new RoundRobinResourceClustersTestBase.DummyAllocatorFactory())
+				.defaultExpirationPolicy(new TimeoutSinceCreationExpirationPolicy<>(200, MILLISECONDS))
+				.defaultMaxPoolSize(3)
+				.build());
+		final ResourceClusterAndPoolKey<UUID, String> keyPool = new ResourceClusterAndPoolKey<>(UUID.randomUUID(), "server_A");
+		clusters.registerResourcePool(keyPool);
+		final ResourcePool<String, String> pool = requireNonNull(clusters.getResourceCluster(keyPool.getClusterKey()).resourcePools
+				.findResourcePool(keyPool.getPoolKey()));
+
+		try {
+			final PoolableObject<String> heldObject = requireNonNull(clusters.claimResourceFromPool(keyPool));
+			final PoolableObject<String> releasedObject = requireNonNull(clusters.claimResourceFromPool(keyPool));
+			final PoolableObject<String> invalidatedObject = requireNonNull(clusters.claimResourceFromPool(keyPool));
+			assertThat(pool.getOutstandingClaims()).isEqualTo(3);
+
+			releasedObject.release();
+			assertThat(pool.getOutstandingClaims()).isEqualTo(2);
+			invalidatedObject.invalidate();
+			awaitLiveResources(clusters, keyPool.getClusterKey(), 2);
+			assertThat(pool.getOutstandingClaims()).isEqualTo(1);
+
+			// the released object expires while idle, which ends no claim
+			awaitLiveResources(clusters, keyPool.getClusterKey(), 1);
+			assertThat(pool.getOutstandingClaims()).isEqualTo(1);
+			assertThat(pool.hasIdleObject()).isFalse();
+
+			heldObject.release();
+			awaitLiveResources(clusters, keyPool.getClusterKey(), 0);
+			assertThat(pool.getOutstandingClaims()).isZero();
+		} finally {
+			clusters.shutDown().get(1, SECONDS);
+		}
+	}
+
+	private static void awaitLiveResources(final ResourceClusters<UUID, String, String> clusters, final UUID keyCluster, final int liveResources)
+			throws InterruptedException {
+		final long deadline = System.currentTimeMillis() + 2000;
+		while (clusters.countLiveResources(keyCluster) != liveResources && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(clusters.countLiveResources(keyCluster)).isEqualTo(liveResources);
+	}
+}
@@ -14,6 +14,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class ResourcePoolsShutdownTest {
 
@@ -62,4 +63,32 @@ class ResourcePoolsShutdownTest {
 			allowDeallocationToFinish.countDown();
 		}
 	}
+
+	@Test
+	void shutdownPoolRemovesOnlyThatPoolFromKeyedLookup() throws Exception {
+		ResourcePools<String, Boolean> pools = new ResourcePools<>(new ArrayList<ResourcePool<String, Boolean>>());
+		pools.add(new ResourcePool<>("server-a", newBooleanPool()));
+		pools.add(new ResourcePool<>("server-b", newBooleanPool()));
+
+		pools.shutdownPool("server-a").get(1, TimeUnit.SECONDS);
+
+		assertThat(pools.containsPool("server-a")).isFalse();
+		assertThat(pools.containsPool("server-b")).isTrue();
+		assertThatThrownBy(() -> pools.claimResource("server-a", new Timeout(1, TimeUnit.SECONDS)))
+				.isInstanceOf(IllegalArgumentException.class);
+
+		pools.add(new ResourcePool<>("server-a", newBooleanPool()));
+		assertThat(pools.containsPool("server-a")).isTrue();
+		pools.shutdownPool(null).get(1, TimeUnit.SECONDS);
+	}
+
+	private static GenericObjectPool<Boolean> newBooleanPool() {
+		return new GenericObjectPool<>(PoolConfig.<Boolean>builder().maxPoolsize(1).build(), new Allocator<Boolean>() {
+			@NotNull
+			@Override
+			public Boolean allocate() {
+				return true;
+			}
+		});
+	}
 }
@@ -1,13 +1,20 @@
 package org.bbottema.clusteredobjectpool.core.api;
 
+import org.bbottema.clusteredobjectpool.cyclingstrategies.AtomicRoundRobinLoadBalancing;
+import org.bbottema.clusteredobjectpool.cyclingstrategies.LatencyAwareLoadBalancing;
+import org.bbottema.clusteredobjectpool.cyclingstrategies.LeastOutstandingClaimsLoadBalancing;
+import org.bbottema.clusteredobjectpool.cyclingstrategies.PowerOfTwoChoicesLoadBalancing;
 import org.bbottema.clusteredobjectpool.cyclingstrategies.RandomAccessLoadBalancing;
 import org.bbottema.clusteredobjectpool.cyclingstrategies.RoundRobinLoadBalancing;
+import org.bbottema.clusteredobjectpool.cyclingstrategies.SmoothWeightedRoundRobinLoadBalancing;
+import org.bbottema.clusteredobjectpool.util.CopyOnWriteCyclingCollection;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.byLessThan;
@@ -33,6 +40,178 @@ public class LoadBalancingStrategyTest {
 		assertThat(balancer.cycle(collectionForCycling)).isEqualTo(3);
 	}
 	
+	@Test
+	public void testAtomicRoundRobinLoadBalancingStrategy() {
+		final AtomicRoundRobinLoadBalancing<Integer> balancer = new AtomicRoundRobinLoadBalancing<>();
+		final CopyOnWriteCyclingCollection<Integer> collectionForCycling = balancer.createCollectionForCycling();
+		
+		collectionForCycling.add(1);
+		collectionForCycling.add(2);
+		collectionForCycling.add(3);
+		
+		assertThat(balancer.supportsConcurrentCycling()).isTrue();
+		assertThat(balancer.cycle(collectionForCycling)).isEqualTo(1);
+		assertThat(balancer.cycle(collectionForCycling)).isEqualTo(2);
+		assertThat(balancer.cycle(collectionForCycling)).isEqualTo(3);
+		assertThat(balancer.cycle(collectionForCycling)).isEqualTo(1);
+		
+		final List<Integer> snapshotBeforeRemoval = collectionForCycling.snapshot();
+		collectionForCycling.remove(2);
+		
+		assertThat(snapshotBeforeRemoval).containsExactly(1, 2, 3);
+		assertThat(collectionForCycling).containsExactly(1, 3);
+		assertThat(balancer.cycle(collectionForCycling)).isEqualTo(1);
+		assertThat(balancer.cycle(collectionForCycling)).isEqualTo(3);
+		assertThat(balancer.cycle(collectionForCycling)).isEqualTo(1);
+	}
+	
+	@Test
+	public void testLeastOutstandingClaimsLoadBalancingStrategy() {
+		final LeastOutstandingClaimsLoadBalancing<DummyPool> balancer = new LeastOutstandingClaimsLoadBalancing<>(0, TimeUnit.MILLISECONDS);
+		final LeastOutstandingClaimsLoadBalancing.RankedCollection<DummyPool> collectionForCycling = balancer.createCollectionForCycling();
+		
+		final DummyPool pool1 = new DummyPool(3);
+		final DummyPool pool2 = new DummyPool(1);
+		final DummyPool pool3 = new DummyPool(1);
+		collectionForCycling.add(pool1);
+		collectionForCycling.add(pool2);
+		collectionForCycling.add(pool3);
+		
+		assertThat(balancer.cycle(collectionForCycling)).isSameAs(pool2);
+		assertThat(balancer.cycle(collectionForCycling)).isSameAs(pool3);
+		assertThat(balancer.cycle(collectionForCycling)).isSameAs(pool2);
+		
+		pool1.outstandingClaims = 0;
+		assertThat(balancer.cycle(collectionForCycling)).isSameAs(pool1);
+		assertThat(balancer.cycle(collectionForCycling)).isSameAs(pool1);
+		
+		collectionForCycling.remove(pool1);
+		assertThat(balancer.cycle(collectionForCycling)).isIn(pool2, pool3);
+	}
+	
+	@Test
+	public void testLeastOutstandingClaimsLoadBalancingStrategyReusesRankingWithinInterval() {
+		final LeastOutstandingClaimsLoadBalancing<DummyPool> balancer = new LeastOutstandingClaimsLoadBalancing<>(1, TimeUnit.HOURS);
+		final LeastOutstandingClaimsLoadBalancing.RankedCollection<DummyPool> collectionForCycling = balancer.createCollectionForCycling();
+		
+		final DummyPool pool1 = new DummyPool(0);
+		final DummyPool pool2 = new DummyPool(5);
+		collectionForCycling.add(pool1);
+		collectionForCycling.add(pool2);
+		
+		assertThat(balancer.cycle(collectionForCycling)).isSameAs(pool1);
+		pool1.outstandingClaims = 10;
+		assertThat(balancer.cycle(collectionForCycling)).isSameAs(pool1);
+		assertThat(pool1.timesInspected + pool2.timesInspected).isEqualTo(2);
+		
+		final DummyPool pool3 = new DummyPool(0);
+		collectionForCycling.add(pool3);
+		assertThat(balancer.cycle(collectionForCycling)).isSameAs(pool3);
+	}
+	
+	@Test
+	public void testPowerOfTwoChoicesLoadBalancingStrategy() {
+		final PowerOfTwoChoicesLoadBalancing<DummyPool> balancer = new PowerOfTwoChoicesLoadBalancing<>();
+		final CopyOnWriteCyclingCollection<DummyPool> collectionForCycling = balancer.createCollectionForCycling();
+		
+		final DummyPool idlePool = new DummyPool(0);
+		final DummyPool busyPool = new DummyPool(5);
+		final DummyPool busiestPool = new DummyPool(10);
+		collectionForCycling.add(idlePool);
+		collectionForCycling.add(busyPool);
+		collectionForCycling.add(busiestPool);
+		
+		int idlePoolSelected = 0;
+		for (int i = 0; i < 3_000; i++) {
+			final DummyPool selectedPool = balancer.cycle(collectionForCycling);
+			assertThat(selectedPool).isNotSameAs(busiestPool);
+			if (selectedPool == idlePool) {
+				idlePoolSelected++;
+			}
+		}
+		// the idle pool wins whenever it is sampled, which is in two out of three pairs
+		assertThat(idlePoolSelected).isBetween(1_800, 2_200);
+		
+		collectionForCycling.remove(idlePool);
+		collectionForCycling.remove(busiestPool);
+		assertThat(balancer.cycle(collectionForCycling)).isSameAs(busyPool);
+	}
+	
+	@Test
+	public void testLatencyAwareLoadBalancingStrategy() {
+		final LatencyAwareLoadBalancing<DummyPool> balancer = new LatencyAwareLoadBalancing<>();
+		final CopyOnWriteCyclingCollection<DummyPool> collectionForCycling = balancer.createCollectionForCycling();
+		
+		final DummyPool fastPool = new DummyPool(4);
+		final DummyPool slowPool = new DummyPool(0);
+		fastPool.claimLatencyNanos = 1_000;
+		slowPool.claimLatencyNanos = 1_000_000;
+		collectionForCycling.add(fastPool);
+		collectionForCycling.add(slowPool);
+		
+		for (int i = 0; i < 100; i++) {
+			assertThat(balancer.cycle(collectionForCycling)).isSameAs(fastPool);
+		}
+		
+		slowPool.claimLatencyNanos = 0;
+		slowPool.allocationLatencyNanos = 1_000;
+		assertThat(balancer.cycle(collectionForCycling)).isSameAs(slowPool);
+	}
+	
+	@Test
+	public void testSmoothWeightedRoundRobinLoadBalancingStrategy() {
+		final SmoothWeightedRoundRobinLoadBalancing<DummyPool> balancer = new SmoothWeightedRoundRobinLoadBalancing<>();
+		final SmoothWeightedRoundRobinLoadBalancing.WeightedCollection<DummyPool> collectionForCycling = balancer.createCollectionForCycling();
+		
+		final DummyPool poolA = new DummyPool(0, 50);
+		final DummyPool poolB = new DummyPool(0, 10);
+		final DummyPool poolC = new DummyPool(0, 10);
+		collectionForCycling.add(poolA);
+		collectionForCycling.add(poolB);
+		collectionForCycling.add(poolC);
+		
+		for (int cycle = 0; cycle < 2; cycle++) {
+			assertThat(balancer.cycle(collectionForCycling)).isSameAs(poolA);
+			assertThat(balancer.cycle(collectionForCycling)).isSameAs(poolA);
+			assertThat(balancer.cycle(collectionForCycling)).isSameAs(poolB);
+			assertThat(balancer.cycle(collectionForCycling)).isSameAs(poolA);
+			assertThat(balancer.cycle(collectionForCycling)).isSameAs(poolC);
+			assertThat(balancer.cycle(collectionForCycling)).isSameAs(poolA);
+			assertThat(balancer.cycle(collectionForCycling)).isSameAs(poolA);
+		}
+		
+		collectionForCycling.remove(poolA);
+		assertThat(balancer.cycle(collectionForCycling)).isIn(poolB, poolC);
+		assertThat(balancer.cycle(collectionForCycling)).isIn(poolB, poolC);
+		assertThat(balancer.cycle(collectionForCycling)).isNotSameAs(balancer.cycle(collectionForCycling));
+	}
+
+	@Test
+	public void testSmoothWeightedRoundRobinLoadBalancingStrategyWithLargeWeights() {
+		final SmoothWeightedRoundRobinLoadBalancing<DummyPool> balancer = new SmoothWeightedRoundRobinLoadBalancing<>();
+		final SmoothWeightedRoundRobinLoadBalancing.WeightedCollection<DummyPool> collectionForCycling = balancer.createCollectionForCycling();
+
+		final DummyPool poolA = new DummyPool(0, Integer.MAX_VALUE);
+		final DummyPool poolB = new DummyPool(0, Integer.MAX_VALUE - 1);
+		final DummyPool poolC = new DummyPool(0, 1_000_000);
+		collectionForCycling.add(poolA);
+		collectionForCycling.add(poolB);
+		collectionForCycling.add(poolC);
+
+		// the weights add up beyond Integer.MAX_VALUE, and a full cycle would take billions of claims
+		assertThat(balancer.cycle(collectionForCycling)).isSameAs(poolA);
+		assertThat(balancer.cycle(collectionForCycling)).isSameAs(poolB);
+		int claimsOnA = 1;
+		int claimsOnC = 0;
+		for (int claim = 2; claim < 10_000; claim++) {
+			final DummyPool pool = balancer.cycle(collectionForCycling);
+			claimsOnA += pool == poolA ? 1 : 0;
+			claimsOnC += pool == poolC ? 1 : 0;
+		}
+		assertThat(claimsOnA).isEqualTo(4999);
+		assertThat(claimsOnC).isEqualTo(2);
+	}
+
 	@Test
 	public void testRandomLoadBalancingStrategy() {
 		final RandomAccessLoadBalancing<Double> balancer = new RandomAccessLoadBalancing<>();
@@ -72,4 +251,42 @@ public class LoadBalancingStrategyTest {
 		// standard Deviation
 		return Math.sqrt(variance);
 	}
-}
\ No newline at end of file
+	
+	private static class DummyPool implements LoadAwarePool {
+		private int outstandingClaims;
+		private int timesInspected;
+		private final int weight;
+		private long claimLatencyNanos;
+		private long allocationLatencyNanos;
+		
+		private DummyPool(final int outstandingClaims) {
+			this(outstandingClaims, 1);
+		}
+		
+		private DummyPool(final int outstandingClaims, final int weight) {
+			this.outstandingClaims = outstandingClaims;
+			this.weight = weight;
+		}
+		
+		@Override
+		public int getOutstandingClaims() {
+			timesInspected++;
+			return outstandingClaims;
+		}
+		
+		@Override
+		public int getWeight() {
+			return weight;
+		}
+		
+		@Override
+		public long getClaimLatencyNanos() {
+			return claimLatencyNanos;
+		}
+		
+		@Override
+		public long getAllocationLatencyNanos() {
+			return allocationLatencyNanos;
+		}
+	}
+}
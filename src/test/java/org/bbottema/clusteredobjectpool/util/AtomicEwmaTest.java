@@ -0,0 +1,36 @@
+package org.bbottema.clusteredobjectpool.util;
+
+import org.junit.jupiter.api.Test;
+
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+class AtomicEwmaTest {
+
+	@Test
+	void followsPeaksImmediatelyAndRecoversGradually() {
+		final AtomicEwma ewma = new AtomicEwma(1, HOURS);
+
+		ewma.update(1_000);
+		assertThat(ewma.getNanos()).isCloseTo(1_000, withinPercentage(1));
+
+		ewma.update(50_000);
+		assertThat(ewma.getNanos()).isCloseTo(50_000, withinPercentage(1));
+
+		// with an hour of decay time, samples moments apart barely move the average down
+		ewma.update(1_000);
+		assertThat(ewma.getNanos()).isGreaterThan(49_000);
+	}
+
+	@Test
+	void decaysWithoutSamples() throws InterruptedException {
+		final AtomicEwma ewma = new AtomicEwma(10, MILLISECONDS);
+
+		ewma.update(1_000_000);
+		MILLISECONDS.sleep(100);
+
+		assertThat(ewma.getNanos()).isLessThan(1_000);
+	}
+}
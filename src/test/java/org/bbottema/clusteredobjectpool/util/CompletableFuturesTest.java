@@ -0,0 +1,80 @@
+package org.bbottema.clusteredobjectpool.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompletableFuturesTest {
+
+	@Test
+	void allOfCompletesWhenPlainAndCompletableFuturesHaveCompleted() throws Exception {
+		final CompletableFuture<Void> completableFuture = new CompletableFuture<>();
+		final FutureTask<Void> plainFuture = new FutureTask<>(new Callable<Void>() {
+			@Override
+			public Void call() {
+				return null;
+			}
+		});
+
+		final CompletableFuture<Void> all = CompletableFutures.allOf(Arrays.asList(completableFuture, plainFuture));
+		assertThat(all).isNotDone();
+
+		completableFuture.complete(null);
+		assertThat(all).isNotDone();
+
+		plainFuture.run();
+		all.get(1, SECONDS);
+	}
+
+	@Test
+	void allOfFailsWithTheCauseOfAFailedPlainFuture() {
+		final FutureTask<Void> failingFuture = new FutureTask<>(new Callable<Void>() {
+			@Override
+			public Void call() {
+				throw new IllegalStateException("deallocation failed");
+			}
+		});
+		failingFuture.run();
+
+		assertThatThrownBy(() -> CompletableFutures.allOf(Arrays.asList(failingFuture)).get(1, SECONDS))
+				.isInstanceOf(ExecutionException.class)
+				.hasCauseInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	void pollerThreadEndsWhenNothingIsPolled() throws Exception {
+		final FutureTask<Void> plainFuture = new FutureTask<>(new Callable<Void>() {
+			@Override
+			public Void call() {
+				return null;
+			}
+		});
+		final CompletableFuture<Void> completableFuture = CompletableFutures.toCompletableFuture(plainFuture);
+		assertThat(isPollerThreadAlive()).isTrue();
+
+		plainFuture.run();
+		completableFuture.get(1, SECONDS);
+		final long deadline = System.currentTimeMillis() + 5000;
+		while (isPollerThreadAlive() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(50);
+		}
+		assertThat(isPollerThreadAlive()).isFalse();
+	}
+
+	private static boolean isPollerThreadAlive() {
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			if (thread.getName().equals("clustered-object-pool-future-poller") && thread.isAlive()) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,40 @@
+package org.bbottema.clusteredobjectpool.util;
+
+import org.junit.jupiter.api.Test;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyHistogramTest {
+
+	@Test
+	void percentilesAreAccurateWithinABucket() {
+		final LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 0; i < 98; i++) {
+			histogram.record(MICROSECONDS.toNanos(5));
+		}
+		histogram.record(MILLISECONDS.toNanos(3));
+		histogram.record(MILLISECONDS.toNanos(3));
+
+		final LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+		assertThat(snapshot.getCount()).isEqualTo(100);
+		assertThat(snapshot.getPercentileNanos(50)).isBetween(MICROSECONDS.toNanos(5), MICROSECONDS.toNanos(10));
+		assertThat(snapshot.getPercentileNanos(98)).isBetween(MICROSECONDS.toNanos(5), MICROSECONDS.toNanos(10));
+		assertThat(snapshot.getPercentileNanos(99)).isBetween(MILLISECONDS.toNanos(3), MILLISECONDS.toNanos(6));
+	}
+
+	@Test
+	void snapshotsAreImmutableAndMergeable() {
+		final LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(0);
+		final LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+		histogram.record(Long.MAX_VALUE);
+
+		assertThat(snapshot.getCount()).isOne();
+		assertThat(snapshot.getPercentileNanos(100)).isEqualTo(1024);
+		assertThat(snapshot.merge(histogram.snapshot()).getCount()).isEqualTo(3);
+		assertThat(histogram.snapshot().getPercentileNanos(100)).isEqualTo(Long.MAX_VALUE);
+		assertThat(LatencyHistogram.Snapshot.EMPTY.getPercentileNanos(99)).isZero();
+	}
+}